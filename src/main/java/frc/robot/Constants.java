@@ -21,6 +21,15 @@ public final class Constants {
 
   public static final class CodeConstants {
     public static final double kMainLoopFrequency = 50; // Hz
+    // how often the odometry thread samples the drive encoders and gyro
+    public static final double kOdometryFrequency = 250; // Hz
+    // how often the vision thread checks the camera for a new frame
+    public static final double kVisionFrequency = 100; // Hz
+    // how often diagnostic telemetry is published
+    public static final double kDiagnosticTelemetryFrequency = 10; // Hz
+    // Most NetworkTables data telemetry may send during a match. The FMS caps
+    // the whole robot radio link, cameras included, at 4 Mbit/s.
+    public static final double kTelemetryBytesPerSecond = 50_000;
   }
 
   public static final int NEO550_CURRENT_LIMIT = 20;
@@ -34,6 +43,17 @@ public final class Constants {
     // Driving Parameters
     public static final double MAX_SPEED_METERS_PER_SECOND = 4.8;
     public static final double MAX_ANGULAR_SPEED = 2 * Math.PI; // radians per second
+    // Limits for the setpoint generator. Both are per module: acceleration is
+    // what the tires can push without slipping, steering speed is how fast the
+    // MAXSwerve turning motor can actually swing the wheel.
+    public static final double MAX_MODULE_ACCELERATION = 8.0; // meters per second squared, TODO: measure
+    public static final double MAX_MODULE_STEERING_SPEED = 4 * Math.PI; // radians per second, TODO: measure
+    // Heading controller. The profile limits how hard the robot snaps to a new
+    // heading; P and D correct for whatever the profile's feedforward misses.
+    public static final double HEADING_MAX_ACCELERATION = 4 * Math.PI; // radians per second squared, TODO: tune
+    public static final double HEADING_P = 4.0; // radians per second per radian, TODO: tune
+    public static final double HEADING_D = 0.1; // per (radian per second) of rate error, TODO: tune
+    public static final double HEADING_TOLERANCE = Units.degreesToRadians(5);
 
     // Chassis configuration
     // Distance between centers of right and left wheels on robot
@@ -44,6 +64,12 @@ public final class Constants {
     public static final Translation2d REAR_LEFT_OFFSET = new Translation2d(-kWheelBase / 2, kTrackWidth / 2);
     public static final Translation2d FRONT_RIGHT_OFFSET = new Translation2d(kWheelBase / 2, -kTrackWidth / 2);
     public static final Translation2d REAR_RIGHT_OFFSET = new Translation2d(-kWheelBase / 2, -kTrackWidth / 2);
+    // same order as the kinematics
+    public static final Translation2d[] MODULE_OFFSETS = {
+        FRONT_LEFT_OFFSET,
+        FRONT_RIGHT_OFFSET,
+        REAR_LEFT_OFFSET,
+        REAR_RIGHT_OFFSET };
 
     public static final SwerveDriveKinematics kDriveKinematics = new SwerveDriveKinematics(
         FRONT_LEFT_OFFSET,
@@ -142,6 +168,22 @@ public final class Constants {
     public static final double SHOOTER_FEEDFORWRD = 0.03;
     public static final double SHOOTER_PVALUE = 0.01;
     public static final double SHOOT_MAX_SPEED_RPS = NEO_MAX_SPEED_RPM / 60;
+    // horizontal speed of a note leaving the shooter at speaker speed, used to
+    // lead the target when shooting on the move
+    public static final double NOTE_EXIT_VELOCITY_MPS = 12; // TODO: measure
+    // SPARK MAX velocity loop gains, in rotations per second
+    public static final double VELOCITY_FF = 0.011;
+    public static final double VELOCITY_P = 0.01;
+
+    // for the flywheel simulation
+    public static final double ROLLER_RADIUS = Units.inchesToMeters(2); // TODO: check against CAD
+    public static final double ROLLER_MOI = 0.0012; // kg m^2 per roller with its shaft, TODO: check against CAD
+    public static final double NOTE_MASS = 0.235; // kg
+    // how long a note is squeezed between the rollers
+    public static final double NOTE_CONTACT_TIME = 0.04;
+    // share of the energy the rollers lose that ends up moving the note; the rest
+    // goes into squashing it
+    public static final double NOTE_LAUNCH_EFFICIENCY = 0.5;
   }
 
   public static final class IndexerConstants {
@@ -248,6 +290,52 @@ public final class Constants {
     public static final int[] isIntookedGreen = { 112, 243, 121 };
   }
 
+  public static final class SimConstants {
+    // Chassis dynamics, TODO: weigh the robot and check against CAD
+    public static final double PHYSICS_FREQUENCY = 1000; // Hz, stepped inside each loop
+    public static final double ROBOT_MASS = 55; // kg, with bumpers and battery
+    // a uniform slab the size of the bumpers
+    public static final double ROBOT_MOI = ROBOT_MASS * 2 * Math.pow(Units.inchesToMeters(32.5), 2) / 12; // kg m^2
+    public static final double WHEEL_COF = 1.1; // tread on carpet
+    // the wheel plus the drive motor's rotor, seen at the wheel
+    public static final double DRIVE_WHEEL_MOI = 0.005; // kg m^2
+
+    // Noise injected by SimNoise for Monte Carlo runs. Normal sim is noise-free.
+    // how much further a slipping wheel turns than the robot moves, as a
+    // fraction of its travel
+    public static final double WHEEL_SLIP_STD_DEV = 0.03;
+    public static final double GYRO_DRIFT_STD_DEV = Units.degreesToRadians(1) / 60; // radians per second
+    public static final double GYRO_RANDOM_WALK = Units.degreesToRadians(0.05); // radians per sqrt(second)
+    public static final double VISION_DROPOUT_PROBABILITY = 0.3;
+
+    public static final int MONTE_CARLO_RUNS_PER_AUTO = 20;
+
+    // Game piece sim. The robot's insides are estimates, TODO: check against CAD
+    public static final double NOTE_RADIUS = Units.inchesToMeters(7);
+    public static final double BUMPER_HALF_LENGTH = Units.inchesToMeters(13 + 3.25);
+    public static final double INTAKE_WIDTH = Units.inchesToMeters(20);
+    // how far the center of a note has moved into the robot since it first
+    // touched the intake rollers when it reaches each point
+    public static final double INTAKE_HANDOFF_POSITION = 0.25; // meters
+    public static final double BEAM_BREAK_POSITION = 0.45; // meters
+    public static final double SHOOTER_POSITION = 0.65; // meters
+    public static final double INTAKE_GEARING = 4;
+    public static final double INDEXER_GEARING = 5;
+    public static final double FEED_ROLLER_RADIUS = Units.inchesToMeters(1);
+    public static final double FEED_ROLLER_MOI = 0.0002; // kg m^2
+
+    // Simulated cameras, roughly an OV9281 running AprilTags on an Orange Pi
+    public static final int CAMERA_WIDTH_PIXELS = 1280;
+    public static final int CAMERA_HEIGHT_PIXELS = 800;
+    public static final double CAMERA_DIAGONAL_FOV_DEGREES = 90;
+    public static final double CAMERA_FPS = 30;
+    public static final double CAMERA_AVG_LATENCY_MS = 30;
+    public static final double CAMERA_LATENCY_STD_DEV_MS = 5;
+    // tag corner detection noise
+    public static final double CAMERA_AVG_ERROR_PIXELS = 0.35;
+    public static final double CAMERA_ERROR_STD_DEV_PIXELS = 0.1;
+  }
+
   public static final class VisionConstants {
     public static final AprilTagFieldLayout KFIELDLAYOUT = AprilTagFields.k2024Crescendo.loadAprilTagLayoutField();
     public static final double X_OFFSET_TO_ROBOT = Units.inchesToMeters(-11.94);
@@ -261,6 +349,40 @@ public final class Constants {
             Z_OFFSET_TO_ROBOT),
         new Rotation3d(0.0, CAMERA_PITCH_RADIANS, Math.PI));
 
+    // One entry per camera, in the same order in both arrays. To add a camera,
+    // add its PhotonVision name and its robot-to-camera transform.
+    public static final String[] CAMERA_NAMES = {
+        "backup_camera" };
+    public static final Transform3d[] ROBOT_TO_CAMS = {
+        ROBOT_TO_CAM };
+
+    // Vision measurement std devs. XY grows with the square of the distance to
+    // the tags and shrinks with the number of tags seen. Single-tag headings
+    // are too noisy to use.
+    public static final double XY_STD_DEV_COEFFICIENT = 0.02; // meters per meter^2
+    public static final double THETA_STD_DEV_COEFFICIENT = 0.04; // radians per meter^2
+    public static final double SINGLE_TAG_THETA_STD_DEV = 100; // radians
+    // scales the std devs up by this much per m/s and per rad/s, for motion blur
+    public static final double LINEAR_SPEED_STD_DEV_SCALE = 0.5;
+    public static final double ANGULAR_SPEED_STD_DEV_SCALE = 1.0;
+    // scales single-tag std devs up by this much per unit of ambiguity
+    public static final double AMBIGUITY_STD_DEV_SCALE = 10;
+
+    // frames that are rejected outright
+    public static final double MAX_AMBIGUITY = 0.2;
+    public static final double MAX_TAG_DISTANCE_METERS = 6;
+    public static final double MAX_Z_ERROR_METERS = 0.5;
+
+    // Innovation gate. Measurements whose squared Mahalanobis distance from
+    // the estimate exceeds the chi-squared 99% value for 3 degrees of freedom
+    // are rejected, unless that many in a row have been rejected, in which
+    // case the estimate is probably what's wrong.
+    public static final double MAHALANOBIS_GATE = 11.34;
+    public static final int MAX_CONSECUTIVE_REJECTIONS = 10;
+    // the pose estimator's default state std devs
+    public static final double ODOMETRY_STD_DEV_METERS = 0.1;
+    public static final double ODOMETRY_STD_DEV_RADIANS = 0.1;
+
     // 5.33E-03*x + 0.206 -
     // https://docs.google.com/spreadsheets/d/1TCEiHto6ypUku9VXPN79PGwONyrlhI2SbMsfn337yTw/edit#gid=0
     // inverse tan of function above to get angle
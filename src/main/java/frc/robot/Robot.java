@@ -15,6 +15,13 @@ import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.OIConstants;
+import frc.utils.CachedSparkMax;
+import frc.utils.CommandEventLog;
+import frc.utils.InputsLog;
+import frc.utils.LoggedDriverStation;
+import frc.utils.LoopProfiler;
+import frc.utils.Telemetry;
 
 /**
  * The VM is configured to automatically run this class, and to call the
@@ -30,14 +37,24 @@ public class Robot extends TimedRobot {
 
   private RobotContainer m_robotContainer;
 
+  private final LoopProfiler.Section telemetryProfile = LoopProfiler.section("Telemetry");
+  // null in replay, where the replay runner feeds the driver station instead
+  private LoggedDriverStation loggedDriverStation;
+
   public enum RobotType {
     SIMULATION,
     KORG,
-    COMP_BOT
+    COMP_BOT,
+    // the real robot's code fed from a recorded log, see LogReplay
+    REPLAY
   }
 
   public static RobotType robotType;
 
+  public RobotContainer getRobotContainer() {
+    return m_robotContainer;
+  }
+
   /**
    * This function is run when the robot is first started up and should be used
    * for any
@@ -56,17 +73,26 @@ public class Robot extends TimedRobot {
     Shuffleboard.getTab("Driver").add("robot/branch info",
         MyVersion.GIT_BRANCH + " " + MyVersion.BUILD_DATE + " " + MyVersion.GIT_SHA);
 
-    if (RobotBase.isSimulation()) {
+    if (InputsLog.isReplay()) {
+      robotType = RobotType.REPLAY;
+    } else if (RobotBase.isSimulation()) {
       robotType = RobotType.SIMULATION;
     } else {
       robotType = RobotType.KORG;
     }
 
+    // before anything with inputs is made, so they all find the log
+    if (!InputsLog.isReplay()) {
+      InputsLog.startLogging(DataLogManager.getLog());
+      loggedDriverStation = new LoggedDriverStation(OIConstants.kDriverControllerPort,
+          OIConstants.kOperatorControllerPort);
+    }
+
     m_robotContainer = new RobotContainer();
 
-    CommandScheduler.getInstance().onCommandInitialize(cmd -> DataLogManager.log(cmd.getName() + ": Init"));
-    CommandScheduler.getInstance().onCommandInterrupt(cmd -> DataLogManager.log(cmd.getName() + ": Interrupted"));
-    CommandScheduler.getInstance().onCommandFinish(cmd -> DataLogManager.log(cmd.getName() + ": End"));
+    CommandEventLog.start(DataLogManager.getLog(), CommandScheduler.getInstance());
+    // after RobotContainer, so every trigger is already bound
+    LoopProfiler.attach(CommandScheduler.getInstance());
 
   }
 
@@ -89,7 +115,27 @@ public class Robot extends TimedRobot {
     // and running subsystem periodic() methods. This must be called from the
     // robot's periodic
     // block in order for anything in the Command-based framework to work.
+    if (loggedDriverStation != null) {
+      InputsLog.startCycle();
+      loggedDriverStation.update();
+    }
     CommandScheduler.getInstance().run();
+    CachedSparkMax.publishTelemetry();
+    telemetryProfile.start();
+    Telemetry.flush();
+    telemetryProfile.stop();
+  }
+
+  /**
+   * Times the whole loop, mode functions and dashboard updates included, so an
+   * overrun the profiler reports is the same one TimedRobot's watchdog warns
+   * about.
+   */
+  @Override
+  protected void loopFunc() {
+    LoopProfiler.startLoop();
+    super.loopFunc();
+    LoopProfiler.endLoop();
   }
 
   /** This function is called once each time the robot enters Disabled mode. */
@@ -115,8 +161,8 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void autonomousInit() {
-    // Optional<Alliance> ally = DriverStation.getAlliance();
-    // m_robotContainer.m_vision.assignAprilTags(ally);
+    // the speaker pose is needed to aim in auto too, not just teleop
+    m_robotContainer.robotDrive.setAprilTagIDsAndLocations(DriverStation.getAlliance());
     RobotContainer.m_arm.setEncoderPosition(RobotContainer.m_arm.getAbsoluteEncoderPosition());
 
     m_autonomousCommand = m_robotContainer.getAutonomousCommand();
@@ -7,6 +7,7 @@ package frc.robot;
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.auto.NamedCommands;
 
+import java.util.concurrent.Future;
 import java.util.function.DoubleSupplier;
 
 import edu.wpi.first.math.MathUtil;
@@ -20,6 +21,7 @@ import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
 import edu.wpi.first.wpilibj2.command.RunCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import edu.wpi.first.wpilibj2.command.StartEndCommand;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
 import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
@@ -27,38 +29,52 @@ import frc.robot.Constants.DriveConstants;
 import frc.robot.Constants.OIConstants;
 import frc.robot.Robot.RobotType;
 import frc.robot.commands.automaticIntakeAndIndexer;
+import frc.robot.sim.NoteSim;
+import frc.robot.sim.SwerveDriveSim;
+import frc.robot.sim.VisionIO_Dropout;
 import frc.robot.subsystems.LED;
 import frc.robot.subsystems.Indexer.Indexer;
 import frc.robot.subsystems.Indexer.IndexerIO;
 import frc.robot.subsystems.Indexer.RealIndexer;
+import frc.robot.subsystems.Indexer.ReplayIndexer;
 import frc.robot.subsystems.Indexer.SimIndexer;
 import frc.robot.subsystems.arm.Arm;
 import frc.robot.subsystems.arm.ArmIO;
 import frc.robot.subsystems.arm.RealArm;
+import frc.robot.subsystems.arm.ReplayArm;
 import frc.robot.subsystems.arm.SimArm;
 import frc.robot.subsystems.climber.Climber;
 import frc.robot.subsystems.climber.ClimberIO;
 import frc.robot.subsystems.climber.ClimberReal;
+import frc.robot.subsystems.climber.ClimberReplay;
 import frc.robot.subsystems.climber.ClimberSim;
 import frc.robot.subsystems.drive.DriveSubsystem;
+import frc.robot.subsystems.drive.DriveSubsystem.HeadingTarget;
 import frc.robot.subsystems.drive.SwerveModule;
 import frc.robot.subsystems.drive.SwerveModuleIO;
 import frc.robot.subsystems.drive.SwerveModuleIO_Real;
+import frc.robot.subsystems.drive.SwerveModuleIO_Replay;
 import frc.robot.subsystems.drive.SwerveModuleIO_Sim;
 import frc.robot.subsystems.drive.VisionIO;
 import frc.robot.subsystems.drive.VisionIO_Hardware;
 import frc.robot.subsystems.drive.VisionIO_Placebo;
+import frc.robot.subsystems.drive.VisionIO_Sim;
 import frc.robot.subsystems.gyro.GyroIO;
 import frc.robot.subsystems.gyro.GyroIOPigeon2;
+import frc.robot.subsystems.gyro.GyroIOReplay;
 import frc.robot.subsystems.gyro.GyroIOSim;
 import frc.robot.subsystems.intake.Intake;
 import frc.robot.subsystems.intake.IntakeIO;
 import frc.robot.subsystems.intake.RealIntake;
+import frc.robot.subsystems.intake.ReplayIntake;
 import frc.robot.subsystems.intake.SimIntake;
 import frc.robot.subsystems.shooter.RealShooter;
+import frc.robot.subsystems.shooter.ReplayShooter;
 import frc.robot.subsystems.shooter.Shooter;
 import frc.robot.subsystems.shooter.ShooterIO;
 import frc.robot.subsystems.shooter.SimShooter;
+import frc.utils.MotorUtil;
+import frc.utils.ParallelInit;
 
 /*
  * This class is where the bulk of the robot should be declared.  Since Command-based is a
@@ -69,6 +85,9 @@ import frc.robot.subsystems.shooter.SimShooter;
 public class RobotContainer {
         // The robot's subsystems
         public DriveSubsystem robotDrive;
+        // only in simulation; null on the robot
+        public SwerveDriveSim swerveDriveSim;
+        public NoteSim noteSim;
         private static GyroIO m_gyro;
 
         public boolean fieldOrientedDrive = true;
@@ -109,6 +128,7 @@ public class RobotContainer {
          */
         public RobotContainer() {
                 setUpSubsystems();
+                MotorUtil.reportBusUtilization();
                 configureDefaultCommands();
                 configureButtonBindingsDriver();
                 configureButtonBindingsOperatorClimber();
@@ -124,17 +144,31 @@ public class RobotContainer {
         private void setUpSubsystems() {
 
                 if (Robot.robotType == RobotType.SIMULATION) {
-                        indexerIO = new SimIndexer();
-                        shooterIO = new SimShooter();
-                        intakeIO = new SimIntake();
+                        SimShooter simShooter = new SimShooter();
+                        shooterIO = simShooter;
+                        SimIndexer simIndexer = new SimIndexer();
+                        SimIntake simIntake = new SimIntake();
+                        indexerIO = simIndexer;
+                        intakeIO = simIntake;
                         climberIO = new ClimberSim();
                         armIO = new SimArm();
-                        visionIO = new VisionIO_Placebo();
-                        m_gyro = new GyroIOSim();
-                        m_frontLeftIO = new SwerveModuleIO_Sim("front left");
-                        m_frontRightIO = new SwerveModuleIO_Sim("front right");
-                        m_rearLeftIO = new SwerveModuleIO_Sim("rear left");
-                        m_rearRightIO = new SwerveModuleIO_Sim("rear right");
+                        GyroIOSim gyroSim = new GyroIOSim();
+                        SwerveModuleIO_Sim frontLeftSim = new SwerveModuleIO_Sim("front left");
+                        SwerveModuleIO_Sim frontRightSim = new SwerveModuleIO_Sim("front right");
+                        SwerveModuleIO_Sim rearLeftSim = new SwerveModuleIO_Sim("rear left");
+                        SwerveModuleIO_Sim rearRightSim = new SwerveModuleIO_Sim("rear right");
+                        m_gyro = gyroSim;
+                        m_frontLeftIO = frontLeftSim;
+                        m_frontRightIO = frontRightSim;
+                        m_rearLeftIO = rearLeftSim;
+                        m_rearRightIO = rearRightSim;
+                        // before the drivetrain, so the physics is stepped before the drive
+                        // code reads it
+                        swerveDriveSim = new SwerveDriveSim(gyroSim, frontLeftSim, frontRightSim, rearLeftSim,
+                                        rearRightSim);
+                        noteSim = new NoteSim(swerveDriveSim, simIntake, simIndexer, simShooter);
+                        // drops frames only when SimNoise is turned on
+                        visionIO = new VisionIO_Dropout(new VisionIO_Sim(swerveDriveSim::getPose));
 
                         robotDrive = new DriveSubsystem(
                                         new SwerveModule(m_frontLeftIO),
@@ -142,32 +176,77 @@ public class RobotContainer {
                                         new SwerveModule(m_rearLeftIO),
                                         new SwerveModule(m_rearRightIO), m_gyro, visionIO);
 
-                } else {
-
-                        m_frontLeftIO = new SwerveModuleIO_Real(DriveConstants.kFrontLeftDrivingCanId,
-                                        DriveConstants.kFrontLeftTurningCanId,
-                                        DriveConstants.kFrontLeftChassisAngularOffset,
+                } else if (Robot.robotType == RobotType.REPLAY) {
+                        // every input comes from the log, so none of these touch hardware
+                        m_frontLeftIO = new SwerveModuleIO_Replay(DriveConstants.kFrontLeftChassisAngularOffset,
                                         "front left");
-                        m_frontRightIO = new SwerveModuleIO_Real(DriveConstants.kFrontRightDrivingCanId,
-                                        DriveConstants.kFrontRightTurningCanId,
-                                        DriveConstants.kFrontRightChassisAngularOffset,
+                        m_frontRightIO = new SwerveModuleIO_Replay(DriveConstants.kFrontRightChassisAngularOffset,
                                         "front right");
-                        m_rearLeftIO = new SwerveModuleIO_Real(DriveConstants.kRearLeftDrivingCanId,
-                                        DriveConstants.kRearLeftTurningCanId,
-                                        DriveConstants.kRearLeftChassisAngularOffset,
+                        m_rearLeftIO = new SwerveModuleIO_Replay(DriveConstants.kRearLeftChassisAngularOffset,
                                         "rear left");
-                        m_rearRightIO = new SwerveModuleIO_Real(DriveConstants.kRearRightDrivingCanId,
-                                        DriveConstants.kRearRightTurningCanId,
-                                        DriveConstants.kRearRightChassisAngularOffset,
+                        m_rearRightIO = new SwerveModuleIO_Replay(DriveConstants.kRearRightChassisAngularOffset,
                                         "rear right");
+                        indexerIO = new ReplayIndexer();
+                        shooterIO = new ReplayShooter();
+                        intakeIO = new ReplayIntake();
+                        climberIO = new ClimberReplay();
+                        armIO = new ReplayArm();
+                        m_gyro = new GyroIOReplay();
+                        visionIO = new VisionIO_Placebo();
 
-                        indexerIO = new RealIndexer();
-                        shooterIO = new RealShooter();
-                        intakeIO = new RealIntake();
-                        climberIO = new ClimberReal();
-                        armIO = new RealArm();
-                        m_gyro = new GyroIOPigeon2();
-                        visionIO = new VisionIO_Hardware();
+                        robotDrive = new DriveSubsystem(
+                                        new SwerveModule(m_frontLeftIO),
+                                        new SwerveModule(m_frontRightIO),
+                                        new SwerveModule(m_rearLeftIO),
+                                        new SwerveModule(m_rearRightIO), m_gyro, visionIO);
+
+                } else {
+
+                        // every device waits on CAN while it's configured, so bring them all
+                        // up at once
+                        ParallelInit init = new ParallelInit();
+                        Future<SwerveModuleIO> frontLeft = init.submit("front left module",
+                                        () -> new SwerveModuleIO_Real(DriveConstants.kFrontLeftDrivingCanId,
+                                                        DriveConstants.kFrontLeftTurningCanId,
+                                                        DriveConstants.kFrontLeftChassisAngularOffset,
+                                                        "front left"));
+                        Future<SwerveModuleIO> frontRight = init.submit("front right module",
+                                        () -> new SwerveModuleIO_Real(DriveConstants.kFrontRightDrivingCanId,
+                                                        DriveConstants.kFrontRightTurningCanId,
+                                                        DriveConstants.kFrontRightChassisAngularOffset,
+                                                        "front right"));
+                        Future<SwerveModuleIO> rearLeft = init.submit("rear left module",
+                                        () -> new SwerveModuleIO_Real(DriveConstants.kRearLeftDrivingCanId,
+                                                        DriveConstants.kRearLeftTurningCanId,
+                                                        DriveConstants.kRearLeftChassisAngularOffset,
+                                                        "rear left"));
+                        Future<SwerveModuleIO> rearRight = init.submit("rear right module",
+                                        () -> new SwerveModuleIO_Real(DriveConstants.kRearRightDrivingCanId,
+                                                        DriveConstants.kRearRightTurningCanId,
+                                                        DriveConstants.kRearRightChassisAngularOffset,
+                                                        "rear right"));
+
+                        Future<IndexerIO> indexer = init.submit("indexer", RealIndexer::new);
+                        Future<ShooterIO> shooter = init.submit("shooter", RealShooter::new);
+                        Future<IntakeIO> intake = init.submit("intake", RealIntake::new);
+                        Future<ClimberIO> climber = init.submit("climber", ClimberReal::new);
+                        Future<ArmIO> arm = init.submit("arm", RealArm::new);
+                        Future<GyroIO> gyro = init.submit("gyro", GyroIOPigeon2::new);
+                        Future<VisionIO> vision = init.submit("vision", VisionIO_Hardware::new);
+                        // everything has to be up before the subsystems are made
+                        init.join();
+
+                        m_frontLeftIO = ParallelInit.get(frontLeft);
+                        m_frontRightIO = ParallelInit.get(frontRight);
+                        m_rearLeftIO = ParallelInit.get(rearLeft);
+                        m_rearRightIO = ParallelInit.get(rearRight);
+                        indexerIO = ParallelInit.get(indexer);
+                        shooterIO = ParallelInit.get(shooter);
+                        intakeIO = ParallelInit.get(intake);
+                        climberIO = ParallelInit.get(climber);
+                        armIO = ParallelInit.get(arm);
+                        m_gyro = ParallelInit.get(gyro);
+                        visionIO = ParallelInit.get(vision);
 
                         robotDrive = new DriveSubsystem(
                                         new SwerveModule(m_frontLeftIO),
@@ -292,23 +371,32 @@ public class RobotContainer {
 
                 // driver b: reset gyro
                 m_driverController.b().onTrue(new InstantCommand(() -> m_gyro.setYaw(0.0)));
-                // driver a: align to speaker mode
-                // m_driverController.a().whileTrue(
-                // // The left stick controls translation of the robot.
-                // // Turning is controlled by the X axis of the right stick.
-                // new RunCommand(
-                // () -> robotDrive.drive(
-                // -(MathUtil.applyDeadband(
-                // m_driverController.getLeftY(),
-                // OIConstants.kDriveDeadband)),
-                // -(MathUtil.applyDeadband(
-                // m_driverController.getLeftX(),
-                // OIConstants.kDriveDeadband)),
-                // -(MathUtil.applyDeadband(
-                // m_driverController.getRightX(),
-                // OIConstants.kDriveDeadband)),
-                // fieldOrientedDrive, true),
-                // robotDrive).withName("drive default"));
+                // driver a: align to speaker mode. Aims the drivetrain and the arm at where
+                // the speaker will be by the time the note gets there, so we can keep
+                // driving while we shoot
+                m_driverController.a().and(() -> robotDrive.getVirtualSpeakerPose() != null).whileTrue(
+                                new ParallelCommandGroup(
+                                                // The left stick controls translation of the robot.
+                                                new RunCommand(
+                                                                () -> robotDrive.drive(
+                                                                                -(MathUtil.applyDeadband(
+                                                                                                m_driverController.getLeftY(),
+                                                                                                OIConstants.kDriveDeadband)),
+                                                                                -(MathUtil.applyDeadband(
+                                                                                                m_driverController.getLeftX(),
+                                                                                                OIConstants.kDriveDeadband)),
+                                                                                -(MathUtil.applyDeadband(
+                                                                                                m_driverController.getRightX(),
+                                                                                                OIConstants.kDriveDeadband)),
+                                                                                fieldOrientedDrive, true),
+                                                                robotDrive).withName("align to speaker"),
+                                                makeSetPositionCommandVision(m_arm)));
+
+                // driver d-pad: while held, snap to and hold the heading that faces the
+                // speaker (up), the amp (left) or the source (right)
+                m_driverController.povUp().whileTrue(headingTargetCommand(HeadingTarget.SPEAKER));
+                m_driverController.povLeft().whileTrue(headingTargetCommand(HeadingTarget.AMP));
+                m_driverController.povRight().whileTrue(headingTargetCommand(HeadingTarget.SOURCE));
 
         }
 
@@ -380,6 +468,14 @@ public class RobotContainer {
                                 .whileTrue(makeSetSpeedGravityCompensationCommand(m_arm, -0.1));
         }
 
+        // doesn't require the drivetrain, so the driver keeps driving with the sticks
+        private Command headingTargetCommand(HeadingTarget target) {
+                return new StartEndCommand(
+                                () -> robotDrive.setHeadingTarget(target),
+                                () -> robotDrive.setHeadingTarget(HeadingTarget.NONE))
+                                .withName("heading " + target);
+        }
+
         public static Command makeSetPositionCommand(Arm arm,
                         double target) {
                 return new SequentialCommandGroup(
@@ -390,7 +486,7 @@ public class RobotContainer {
 
         private Command makeSetPositionCommandVision(Arm arm) {
                 DoubleSupplier target = () -> (arm.getDesiredArmAngle(robotDrive.robotPose,
-                                robotDrive.getSpeakerPose()));
+                                robotDrive.getVirtualSpeakerPose()));
                 return new SequentialCommandGroup(
                                 new ConditionalCommand(new InstantCommand(() -> {
                                 }), new InstantCommand(() -> arm.enable(), arm), () -> arm.isEnabled()),
@@ -0,0 +1,198 @@
+package frc.robot.sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.commands.PathPlannerAuto;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.CodeConstants;
+import frc.robot.Robot;
+import frc.robot.Robot.RobotType;
+import frc.robot.RobotContainer;
+import frc.utils.LoopProfiler;
+import frc.utils.Telemetry;
+
+/**
+ * Runs autos in simulation without the GUI or driver station, as fast as the
+ * CPU allows.
+ *
+ * <p>
+ * The HAL clock is paused and only moves forward one loop at a time when we
+ * step it, so a run is deterministic and a 15 second auto takes however long
+ * the code takes to run 750 loops. Each auto is run from a disabled start, the
+ * same way {@link Robot#autonomousInit()} would start it.
+ *
+ * <p>
+ * Usage: {@code HeadlessSimulation [auto name...]}. With no names, every auto
+ * in the deploy directory is run. Exits with 1 if any auto threw an exception.
+ */
+public final class HeadlessSimulation {
+
+  public static final double AUTO_LENGTH_SECONDS = 15;
+  private static final double LOOP_PERIOD = 1.0 / CodeConstants.kMainLoopFrequency;
+  // loops to sit disabled between autos so everything settles and resets
+  private static final int DISABLED_LOOPS = 5;
+
+  /** What happened when an auto was run. */
+  public static class AutoResult {
+    public final String name;
+    public final boolean finished;
+    public final double durationSeconds;
+    public final Pose2d finalPose;
+    // distance between where the robot thinks it is and where it really is
+    public final double poseErrorMeters;
+    public final int shots;
+    public final Throwable error;
+
+    AutoResult(String name, boolean finished, double durationSeconds, Pose2d finalPose, double poseErrorMeters,
+        int shots, Throwable error) {
+      this.name = name;
+      this.finished = finished;
+      this.durationSeconds = durationSeconds;
+      this.finalPose = finalPose;
+      this.poseErrorMeters = poseErrorMeters;
+      this.shots = shots;
+      this.error = error;
+    }
+
+    @Override
+    public String toString() {
+      if (error != null) {
+        return String.format("%-28s ERROR %s", name, error);
+      }
+      return String.format("%-28s %-9s %6.2f s  %d shots  final pose (%.2f, %.2f, %.0f deg)  error %.3f m", name,
+          finished ? "finished" : "TIMED OUT", durationSeconds, shots, finalPose.getX(), finalPose.getY(),
+          finalPose.getRotation().getDegrees(), poseErrorMeters);
+    }
+  }
+
+  private final RobotContainer robotContainer;
+  private final LoopProfiler.Section telemetryProfile = LoopProfiler.section("Telemetry");
+
+  /**
+   * Starts the HAL with its clock paused and builds the robot with the sim IOs.
+   * Only one can be made per process, since the subsystems are static.
+   */
+  public HeadlessSimulation() {
+    if (!HAL.initialize(500, 0)) {
+      throw new IllegalStateException("Failed to initialize the HAL");
+    }
+    SimHooks.pauseTiming();
+    DriverStationSim.setDsAttached(true);
+    DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+    DriverStationSim.setAutonomous(true);
+    DriverStationSim.setEnabled(false);
+    DriverStationSim.notifyNewData();
+    DriverStation.refreshData();
+
+    Robot.robotType = RobotType.SIMULATION;
+    robotContainer = new RobotContainer();
+    LoopProfiler.attach(CommandScheduler.getInstance());
+  }
+
+  public RobotContainer getRobotContainer() {
+    return robotContainer;
+  }
+
+  /** Runs one robot loop and moves the clock forward by one loop period. */
+  public void step() {
+    DriverStation.refreshData();
+    LoopProfiler.startLoop();
+    CommandScheduler.getInstance().run();
+    telemetryProfile.start();
+    Telemetry.flush();
+    telemetryProfile.stop();
+    LoopProfiler.endLoop();
+    // also waits for the odometry thread's notifier to catch up
+    SimHooks.stepTiming(LOOP_PERIOD);
+  }
+
+  private void setEnabled(boolean enabled) {
+    DriverStationSim.setEnabled(enabled);
+    DriverStationSim.notifyNewData();
+  }
+
+  /** Runs one auto from a disabled start until it ends or time runs out. */
+  public AutoResult runAuto(String name) {
+    CommandScheduler.getInstance().cancelAll();
+    setEnabled(false);
+    for (int i = 0; i < DISABLED_LOOPS; i++) {
+      step();
+    }
+
+    double startTime = Timer.getFPGATimestamp();
+    try {
+      Command auto = AutoBuilder.buildAuto(name);
+      // put the robot where the auto expects it to start
+      Pose2d startingPose = PathPlannerAuto.getStaringPoseFromAutoFile(name);
+      if (startingPose != null) {
+        robotContainer.swerveDriveSim.resetPose(startingPose);
+      }
+      robotContainer.noteSim.reset();
+
+      // same as Robot.autonomousInit()
+      setEnabled(true);
+      DriverStation.refreshData();
+      robotContainer.robotDrive.setAprilTagIDsAndLocations(DriverStation.getAlliance());
+      RobotContainer.m_arm.setEncoderPosition(RobotContainer.m_arm.getAbsoluteEncoderPosition());
+      auto.schedule();
+
+      while (auto.isScheduled() && Timer.getFPGATimestamp() - startTime < AUTO_LENGTH_SECONDS) {
+        step();
+      }
+      boolean finished = !auto.isScheduled();
+      double duration = Timer.getFPGATimestamp() - startTime;
+      Pose2d finalPose = robotContainer.robotDrive.getPose();
+      double poseError = finalPose.getTranslation()
+          .getDistance(robotContainer.swerveDriveSim.getPose().getTranslation());
+      return new AutoResult(name, finished, duration, finalPose, poseError,
+          robotContainer.noteSim.getNotesShot(), null);
+    } catch (RuntimeException e) {
+      return new AutoResult(name, false, Timer.getFPGATimestamp() - startTime, null, Double.NaN,
+          robotContainer.noteSim.getNotesShot(), e);
+    } finally {
+      CommandScheduler.getInstance().cancelAll();
+      setEnabled(false);
+    }
+  }
+
+  public static void main(String[] args) {
+    List<String> autoNames = args.length > 0 ? Arrays.asList(args) : AutoBuilder.getAllAutoNames();
+    autoNames = new ArrayList<>(autoNames);
+    autoNames.sort(null);
+
+    HeadlessSimulation simulation = new HeadlessSimulation();
+    List<AutoResult> results = new ArrayList<>();
+    boolean failed = false;
+    long wallStart = System.nanoTime();
+    for (String name : autoNames) {
+      AutoResult result = simulation.runAuto(name);
+      results.add(result);
+      failed |= result.error != null;
+      System.out.println(result);
+      if (result.error != null) {
+        result.error.printStackTrace();
+      }
+    }
+    double wallSeconds = (System.nanoTime() - wallStart) / 1E9;
+    double simSeconds = 0;
+    for (AutoResult result : results) {
+      simSeconds += result.durationSeconds;
+    }
+    System.out.printf("Simulated %d autos, %.1f s of match time in %.1f s%n", results.size(), simSeconds,
+        wallSeconds);
+    LoopProfiler.printSummary();
+    System.exit(failed ? 1 : 0);
+  }
+}
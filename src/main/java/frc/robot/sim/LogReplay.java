@@ -0,0 +1,88 @@
+package frc.robot.sim;
+
+import java.io.IOException;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Constants.OIConstants;
+import frc.robot.Robot;
+import frc.utils.InputsLog;
+import frc.utils.LoggedDriverStation;
+import frc.utils.LoopProfiler;
+
+/**
+ * Runs the robot code against a log recorded on the robot, loop for loop, as
+ * fast as the CPU allows.
+ *
+ * <p>
+ * Every IO layer reads what it read on the robot from the log, the driver
+ * station replays the same modes and button presses, and the HAL clock is
+ * stepped to the time each loop started on the robot. Outputs go nowhere, but
+ * everything the code logs and publishes is recorded to a new log by
+ * DataLogManager, so a tuning or logic change can be checked against a real
+ * match before it's deployed.
+ *
+ * <p>
+ * Usage: {@code LogReplay <log.wpilog> [auto name]}. The auto picked on the
+ * dashboard isn't part of the inputs, so pass it in to replay an auto.
+ */
+public final class LogReplay {
+
+  /** Robot with its loop exposed, so we can run one when we're ready. */
+  private static class ReplayRobot extends Robot {
+    void runLoop() {
+      loopFunc();
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: LogReplay <log.wpilog> [auto name]");
+      System.exit(2);
+    }
+    if (!HAL.initialize(500, 0)) {
+      throw new IllegalStateException("Failed to initialize the HAL");
+    }
+    SimHooks.pauseTiming();
+
+    // before anything with inputs is made, so they all find the log
+    InputsLog.startReplay(args[0]);
+    int cycles = InputsLog.getCycleCount();
+    System.out.printf("Replaying %d loops from %s%n", cycles, args[0]);
+    LoggedDriverStation driverStation = new LoggedDriverStation(OIConstants.kDriverControllerPort,
+        OIConstants.kOperatorControllerPort);
+    ReplayRobot robot = new ReplayRobot();
+    robot.robotInit();
+    if (args.length > 1) {
+      NetworkTableInstance.getDefault().getEntry("/SmartDashboard/Autos/Selector/selected").setString(args[1]);
+    }
+
+    long wallStart = System.nanoTime();
+    double firstTimestamp = Double.NaN;
+    while (InputsLog.startCycle()) {
+      double timestamp = InputsLog.getCycleTimestamp();
+      if (Double.isNaN(firstTimestamp)) {
+        firstTimestamp = timestamp;
+      }
+      double step = timestamp - Timer.getFPGATimestamp();
+      if (step > 0) {
+        SimHooks.stepTiming(step);
+      }
+      // the driver station has to be set before the loop refreshes it
+      driverStation.update();
+      robot.runLoop();
+    }
+
+    double wallSeconds = (System.nanoTime() - wallStart) / 1E9;
+    double matchSeconds = cycles > 0 ? Timer.getFPGATimestamp() - firstTimestamp : 0;
+    Pose2d finalPose = robot.getRobotContainer().robotDrive.getPose();
+    System.out.printf("Replayed %.1f s of robot time in %.1f s%n", matchSeconds, wallSeconds);
+    System.out.printf("Final pose (%.2f, %.2f, %.0f deg)%n", finalPose.getX(), finalPose.getY(),
+        finalPose.getRotation().getDegrees());
+    LoopProfiler.printSummary();
+    System.exit(0);
+  }
+}
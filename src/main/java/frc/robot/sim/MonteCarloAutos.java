@@ -0,0 +1,204 @@
+package frc.robot.sim;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+
+import frc.robot.Constants.SimConstants;
+
+/**
+ * Runs every auto many times with different wheel slip, gyro drift and vision
+ * dropouts and reports how often each one finishes, how long it takes and how
+ * far off the pose estimate ends up.
+ *
+ * <p>
+ * Every (seed, auto) run gets a worker JVM of its own, with one running per
+ * core. The subsystems are static and the HAL only supports one robot per
+ * process, so that's the only way each run starts from a freshly built robot
+ * and sim, with nothing left over from a run before it. A run's result then
+ * depends only on its seed and auto, so a bad one can be repeated on its own.
+ * Each worker prints a {@code RESULT} line for the parent to collect.
+ *
+ * <p>
+ * Usage: {@code MonteCarloAutos [runs per auto] [auto name...]}.
+ */
+public final class MonteCarloAutos {
+
+  private static final String WORKER_FLAG = "--worker";
+  private static final String RESULT_PREFIX = "RESULT\t";
+
+  private MonteCarloAutos() {
+  }
+
+  /** Every run of one auto. */
+  private static class AutoStats {
+    final List<Double> durations = new ArrayList<>();
+    final List<Double> poseErrors = new ArrayList<>();
+    int runs = 0;
+    int finished = 0;
+    int errors = 0;
+    int shots = 0;
+
+    void add(boolean finished, boolean error, double duration, double poseError, int shots) {
+      runs++;
+      if (error) {
+        errors++;
+        return;
+      }
+      if (finished) {
+        this.finished++;
+        durations.add(duration);
+      }
+      poseErrors.add(poseError);
+      this.shots += shots;
+    }
+
+    @Override
+    public String toString() {
+      durations.sort(null);
+      poseErrors.sort(null);
+      double meanError = 0;
+      for (double error : poseErrors) {
+        meanError += error;
+      }
+      meanError /= Math.max(poseErrors.size(), 1);
+      return String.format("%5.1f%% finished  %2d errors  time p10/p50/p90 %5.2f/%5.2f/%5.2f s  "
+          + "pose error mean/p90 %.3f/%.3f m  %.1f shots",
+          100.0 * finished / runs, errors, percentile(durations, 0.1), percentile(durations, 0.5),
+          percentile(durations, 0.9), meanError, percentile(poseErrors, 0.9),
+          (double) shots / Math.max(runs - errors, 1));
+    }
+  }
+
+  /** @param sorted Values in ascending order. */
+  private static double percentile(List<Double> sorted, double p) {
+    if (sorted.isEmpty()) {
+      return Double.NaN;
+    }
+    int index = (int) Math.ceil(p * sorted.size()) - 1;
+    return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+  }
+
+  /** Runs one job, written as {@code seed:auto name}. */
+  private static void runWorker(String job) {
+    int split = job.indexOf(':');
+    long seed = Long.parseLong(job.substring(0, split));
+    String name = job.substring(split + 1);
+
+    // before the robot is built, so nothing it draws comes from another seed
+    SimNoise.reset(seed);
+    HeadlessSimulation simulation = new HeadlessSimulation();
+    HeadlessSimulation.AutoResult result = simulation.runAuto(name);
+    System.out.println(RESULT_PREFIX + String.join("\t", name, Boolean.toString(result.finished),
+        Boolean.toString(result.error != null), Double.toString(result.durationSeconds),
+        Double.toString(result.poseErrorMeters), Integer.toString(result.shots)));
+    if (result.error != null) {
+      result.error.printStackTrace();
+    }
+    System.out.flush();
+    System.exit(0);
+  }
+
+  /** @return Whether the worker exited cleanly. */
+  private static boolean runJob(String job, List<String> resultLines) throws IOException, InterruptedException {
+    List<String> command = new ArrayList<>();
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add("-Djava.library.path=" + System.getProperty("java.library.path"));
+    command.add(MonteCarloAutos.class.getName());
+    command.add(WORKER_FLAG);
+    command.add(job);
+    Process worker = new ProcessBuilder(command)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+    readResults(worker, resultLines);
+    return worker.waitFor() == 0;
+  }
+
+  private static void readResults(Process worker, List<String> resultLines) {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(worker.getInputStream()))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(RESULT_PREFIX)) {
+          resultLines.add(line.substring(RESULT_PREFIX.length()));
+        }
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length > 0 && args[0].equals(WORKER_FLAG)) {
+      runWorker(args[1]);
+      return;
+    }
+
+    int runsPerAuto = SimConstants.MONTE_CARLO_RUNS_PER_AUTO;
+    List<String> autoNames;
+    if (args.length > 0 && args[0].matches("\\d+")) {
+      runsPerAuto = Integer.parseInt(args[0]);
+      autoNames = Arrays.asList(args).subList(1, args.length);
+    } else {
+      autoNames = Arrays.asList(args);
+    }
+    if (autoNames.isEmpty()) {
+      autoNames = AutoBuilder.getAllAutoNames();
+    }
+
+    // seeds are numbered per auto so a bad run can be repeated on its own
+    int workerCount = Math.max(1, Runtime.getRuntime().availableProcessors());
+    long wallStart = System.nanoTime();
+    // each worker's output is drained by the thread that started it, so a
+    // chatty one can't fill its pipe and stall
+    ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+    List<String> resultLines = Collections.synchronizedList(new ArrayList<>());
+    List<Future<Boolean>> jobs = new ArrayList<>();
+    for (int seed = 0; seed < runsPerAuto; seed++) {
+      for (String name : autoNames) {
+        String job = seed + ":" + name;
+        jobs.add(executor.submit(() -> runJob(job, resultLines)));
+      }
+    }
+    boolean failed = false;
+    for (Future<Boolean> job : jobs) {
+      try {
+        failed |= !job.get();
+      } catch (ExecutionException e) {
+        e.getCause().printStackTrace();
+        failed = true;
+      }
+    }
+    executor.shutdown();
+
+    Map<String, AutoStats> stats = new TreeMap<>();
+    for (String line : resultLines) {
+      String[] fields = line.split("\t");
+      boolean error = Boolean.parseBoolean(fields[2]);
+      failed |= error;
+      stats.computeIfAbsent(fields[0], name -> new AutoStats()).add(Boolean.parseBoolean(fields[1]), error,
+          Double.parseDouble(fields[3]), Double.parseDouble(fields[4]), Integer.parseInt(fields[5]));
+    }
+
+    for (Map.Entry<String, AutoStats> entry : stats.entrySet()) {
+      System.out.printf("%-28s %s%n", entry.getKey(), entry.getValue());
+    }
+    System.out.printf("%d runs of %d autos, %d at a time, in %.1f s%n", runsPerAuto, autoNames.size(),
+        workerCount, (System.nanoTime() - wallStart) / 1E9);
+    System.exit(failed ? 1 : 0);
+  }
+}
@@ -0,0 +1,168 @@
+package frc.robot.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.smartdashboard.FieldObject2d;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.SimConstants;
+import frc.robot.subsystems.Indexer.SimIndexer;
+import frc.robot.subsystems.intake.SimIntake;
+import frc.robot.subsystems.shooter.SimShooter;
+import frc.utils.DeltaTimer;
+
+/**
+ * Simulates the notes: where they lie on the field, picking one up when the
+ * spinning intake touches it, carrying it through the intake and indexer at
+ * the rollers' surface speed, and tripping the beam break on the way. Feeding
+ * it far enough hands it to the shooter; running it backwards far enough puts
+ * it back on the carpet in front of the robot.
+ *
+ * <p>
+ * The intake is on the front of the robot. Only one note fits inside at a
+ * time.
+ */
+public class NoteSim extends SubsystemBase {
+
+  // 2024 note positions, blue wing, red wing, then the centerline
+  private static final Translation2d[] STARTING_NOTES = {
+      new Translation2d(2.8956, 4.1021),
+      new Translation2d(2.8956, 5.5499),
+      new Translation2d(2.8956, 6.9977),
+      new Translation2d(13.6449, 4.1021),
+      new Translation2d(13.6449, 5.5499),
+      new Translation2d(13.6449, 6.9977),
+      new Translation2d(8.2706, 0.7529),
+      new Translation2d(8.2706, 2.4293),
+      new Translation2d(8.2706, 4.1057),
+      new Translation2d(8.2706, 5.7821),
+      new Translation2d(8.2706, 7.4585),
+  };
+  // slower than this and the rollers won't grab a note
+  private static final double MIN_GRAB_SPEED = 0.1; // meters per second
+
+  private final SwerveDriveSim drive;
+  private final SimIntake intake;
+  private final SimIndexer indexer;
+  private final SimShooter shooter;
+  private final DeltaTimer deltaTimer = new DeltaTimer();
+
+  private final List<Translation2d> fieldNotes = new ArrayList<>();
+  private boolean hasNote;
+  // how far the note's center has moved in from the intake rollers
+  private double notePosition;
+  private int notesShot;
+  private int notesIntaken;
+
+  private final FieldObject2d fieldNotesObject;
+
+  public NoteSim(SwerveDriveSim drive, SimIntake intake, SimIndexer indexer, SimShooter shooter) {
+    this.drive = drive;
+    this.intake = intake;
+    this.indexer = indexer;
+    this.shooter = shooter;
+    fieldNotesObject = drive.getField().getObject("notes");
+    reset();
+  }
+
+  /** Puts every note back on its mark and preloads one in the robot. */
+  public void reset() {
+    fieldNotes.clear();
+    for (Translation2d note : STARTING_NOTES) {
+      fieldNotes.add(note);
+    }
+    hasNote = true;
+    notePosition = SimConstants.BEAM_BREAK_POSITION;
+    notesShot = 0;
+    notesIntaken = 0;
+    indexer.setIsBeamBroken(isBeamBroken());
+    publishFieldNotes();
+  }
+
+  @Override
+  public void periodic() {
+    double dt = deltaTimer.get();
+    if (hasNote) {
+      moveNote(dt);
+    } else {
+      tryToIntake();
+    }
+    indexer.setIsBeamBroken(isBeamBroken());
+
+    SmartDashboard.putBoolean("sim/has note", hasNote);
+    SmartDashboard.putNumber("sim/notes shot", notesShot);
+  }
+
+  private void moveNote(double dt) {
+    // whichever rollers are holding the note move it
+    double speed = notePosition < SimConstants.INTAKE_HANDOFF_POSITION
+        ? intake.getRollerSurfaceSpeed()
+        : indexer.getRollerSurfaceSpeed();
+    notePosition += speed * dt;
+
+    if (notePosition >= SimConstants.SHOOTER_POSITION) {
+      shooter.startNoteContact();
+      hasNote = false;
+      notesShot++;
+    } else if (notePosition < 0) {
+      // spat back out onto the carpet in front of the bumper
+      Pose2d pose = drive.getPose();
+      double distance = SimConstants.BUMPER_HALF_LENGTH + SimConstants.NOTE_RADIUS;
+      fieldNotes.add(pose.getTranslation().plus(new Translation2d(distance, pose.getRotation())));
+      hasNote = false;
+      publishFieldNotes();
+    }
+  }
+
+  private void tryToIntake() {
+    if (intake.getRollerSurfaceSpeed() < MIN_GRAB_SPEED) {
+      return;
+    }
+    Pose2d pose = drive.getPose();
+    Rotation2d toRobot = pose.getRotation().unaryMinus();
+    for (int i = 0; i < fieldNotes.size(); i++) {
+      Translation2d note = fieldNotes.get(i).minus(pose.getTranslation()).rotateBy(toRobot);
+      // the note's near edge has to reach the bumper in front of the intake
+      if (note.getX() > 0 && note.getX() - SimConstants.NOTE_RADIUS <= SimConstants.BUMPER_HALF_LENGTH
+          && Math.abs(note.getY()) <= SimConstants.INTAKE_WIDTH / 2) {
+        fieldNotes.remove(i);
+        hasNote = true;
+        notePosition = 0;
+        notesIntaken++;
+        publishFieldNotes();
+        return;
+      }
+    }
+  }
+
+  // the beam is blocked while any of the note is over it
+  private boolean isBeamBroken() {
+    return hasNote && Math.abs(notePosition - SimConstants.BEAM_BREAK_POSITION) <= SimConstants.NOTE_RADIUS;
+  }
+
+  private void publishFieldNotes() {
+    List<Pose2d> poses = new ArrayList<>();
+    for (Translation2d note : fieldNotes) {
+      poses.add(new Pose2d(note, new Rotation2d()));
+    }
+    fieldNotesObject.setPoses(poses);
+  }
+
+  public boolean hasNote() {
+    return hasNote;
+  }
+
+  /** Notes that have left through the shooter since the last reset. */
+  public int getNotesShot() {
+    return notesShot;
+  }
+
+  /** Notes picked up off the field since the last reset. */
+  public int getNotesIntaken() {
+    return notesIntaken;
+  }
+}
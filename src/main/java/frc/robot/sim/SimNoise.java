@@ -0,0 +1,65 @@
+package frc.robot.sim;
+
+import java.util.Random;
+
+import frc.robot.Constants.SimConstants;
+
+/**
+ * Seeded noise for simulation: wheel slip, gyro drift and dropped vision
+ * frames. Off until {@link #reset(long)} is called, so the normal simulator
+ * stays perfect. The same seed always gives the same noise, so a bad Monte
+ * Carlo run can be replayed.
+ */
+public final class SimNoise {
+
+  private static boolean enabled = false;
+  private static Random random = new Random(0);
+  private static double gyroDriftRate = 0;
+  private static double gyroError = 0;
+
+  private SimNoise() {
+  }
+
+  /** Turns noise on, starting a new run from {@code seed}. */
+  public static void reset(long seed) {
+    enabled = true;
+    random = new Random(seed);
+    gyroDriftRate = SimConstants.GYRO_DRIFT_STD_DEV * random.nextGaussian();
+    gyroError = 0;
+  }
+
+  /** Turns noise back off. */
+  public static void disable() {
+    enabled = false;
+    gyroError = 0;
+  }
+
+  /**
+   * @param trueDistance How far the wheel's contact patch really moved.
+   * @return How far the wheel turned, which is never less.
+   */
+  public static double slipWheel(double trueDistance) {
+    if (!enabled) {
+      return trueDistance;
+    }
+    return trueDistance * (1 + Math.abs(SimConstants.WHEEL_SLIP_STD_DEV * random.nextGaussian()));
+  }
+
+  /**
+   * Advances the gyro's drift.
+   *
+   * @return The gyro's total error so far (radians).
+   */
+  public static double stepGyroError(double dt) {
+    if (enabled) {
+      gyroError += gyroDriftRate * dt
+          + SimConstants.GYRO_RANDOM_WALK * Math.sqrt(dt) * random.nextGaussian();
+    }
+    return gyroError;
+  }
+
+  /** Whether the next vision frame should be lost. */
+  public static boolean dropVisionFrame() {
+    return enabled && random.nextDouble() < SimConstants.VISION_DROPOUT_PROBABILITY;
+  }
+}
@@ -0,0 +1,168 @@
+package frc.robot.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.SimConstants;
+import frc.robot.Constants.SwerveModuleConstants;
+import frc.robot.subsystems.drive.SwerveModuleIO_Sim;
+import frc.robot.subsystems.gyro.GyroIOSim;
+import frc.utils.DeltaTimer;
+
+/**
+ * Simulates the whole chassis as one rigid body with the robot's mass and
+ * moment of inertia, pushed around by the tires. Each wheel's grip is limited
+ * by friction, so pushing harder than the carpet allows makes the wheel spin
+ * or the robot skid instead of accelerating. Everything is stepped at
+ * {@link SimConstants#PHYSICS_FREQUENCY} inside each loop.
+ *
+ * <p>
+ * Keeps track of where the robot really is, so the pose estimator's error can
+ * be measured, and drives the simulated gyro from the true heading plus
+ * {@link SimNoise} drift.
+ *
+ * <p>
+ * Has to be constructed before the DriveSubsystem so its periodic() runs
+ * first and the drive code reads this loop's physics.
+ */
+public class SwerveDriveSim extends SubsystemBase {
+
+  private static final double GRAVITY = 9.81;
+  private static final double WHEEL_RADIUS = SwerveModuleConstants.kWheelDiameterMeters / 2;
+
+  private final SwerveModuleIO_Sim[] modules;
+  private final Translation2d[] moduleOffsets = DriveConstants.MODULE_OFFSETS;
+  private final GyroIOSim gyro;
+  private final DeltaTimer deltaTimer = new DeltaTimer();
+
+  // each wheel carries an equal share of the robot
+  private final double massPerWheel;
+  private final double maxFrictionForce;
+
+  // field relative, with an unwrapped heading like a real gyro's yaw
+  private double x = 0;
+  private double y = 0;
+  private double heading = 0;
+  private double xVelocity = 0;
+  private double yVelocity = 0;
+  private double angularVelocity = 0;
+  private Pose2d pose = new Pose2d();
+
+  private final Field2d field = new Field2d();
+
+  /**
+   * @param gyro    The simulated gyro to drive.
+   * @param modules The simulated modules, in kinematics order.
+   */
+  public SwerveDriveSim(GyroIOSim gyro, SwerveModuleIO_Sim... modules) {
+    this.gyro = gyro;
+    this.modules = modules;
+    massPerWheel = SimConstants.ROBOT_MASS / modules.length;
+    maxFrictionForce = SimConstants.WHEEL_COF * massPerWheel * GRAVITY;
+    SmartDashboard.putData("sim/true pose", field);
+  }
+
+  @Override
+  public void periodic() {
+    double dt = deltaTimer.get();
+    int steps = Math.max(1, (int) Math.round(dt * SimConstants.PHYSICS_FREQUENCY));
+    for (int i = 0; i < steps; i++) {
+      step(dt / steps);
+    }
+    for (SwerveModuleIO_Sim module : modules) {
+      module.updateEncoders();
+    }
+
+    pose = new Pose2d(x, y, new Rotation2d(heading));
+    gyro.setYaw(heading + SimNoise.stepGyroError(dt));
+    field.setRobotPose(pose);
+    SmartDashboard.putNumber("sim/speed", Math.hypot(xVelocity, yVelocity));
+  }
+
+  private void step(double dt) {
+    double cos = Math.cos(heading);
+    double sin = Math.sin(heading);
+    double forceX = 0;
+    double forceY = 0;
+    double torque = 0;
+
+    for (int i = 0; i < modules.length; i++) {
+      SwerveModuleIO_Sim module = modules[i];
+      // where the module is relative to the robot's center, field relative
+      double offsetX = moduleOffsets[i].getX() * cos - moduleOffsets[i].getY() * sin;
+      double offsetY = moduleOffsets[i].getX() * sin + moduleOffsets[i].getY() * cos;
+      // how the module is moving over the carpet
+      double moduleVelocityX = xVelocity - angularVelocity * offsetY;
+      double moduleVelocityY = yVelocity + angularVelocity * offsetX;
+      double wheelAngle = heading + module.getTrueAngle();
+      double wheelCos = Math.cos(wheelAngle);
+      double wheelSin = Math.sin(wheelAngle);
+      double alongVelocity = moduleVelocityX * wheelCos + moduleVelocityY * wheelSin;
+      double acrossVelocity = -moduleVelocityX * wheelSin + moduleVelocityY * wheelCos;
+
+      // The force that would make the tread and carpet move together by the
+      // end of this step, counting the motor's torque on the wheel, then cut
+      // down to what friction can actually give.
+      double alongForce = getAlongForce(module, alongVelocity, dt);
+      double acrossForce = -acrossVelocity * massPerWheel / dt;
+      double totalForce = Math.hypot(alongForce, acrossForce);
+      if (totalForce > maxFrictionForce) {
+        alongForce *= maxFrictionForce / totalForce;
+        acrossForce *= maxFrictionForce / totalForce;
+      }
+
+      module.simulationStep(dt, alongForce);
+
+      double wheelForceX = alongForce * wheelCos - acrossForce * wheelSin;
+      double wheelForceY = alongForce * wheelSin + acrossForce * wheelCos;
+      forceX += wheelForceX;
+      forceY += wheelForceY;
+      torque += offsetX * wheelForceY - offsetY * wheelForceX;
+    }
+
+    xVelocity += forceX / SimConstants.ROBOT_MASS * dt;
+    yVelocity += forceY / SimConstants.ROBOT_MASS * dt;
+    angularVelocity += torque / SimConstants.ROBOT_MOI * dt;
+    x += xVelocity * dt;
+    y += yVelocity * dt;
+    heading += angularVelocity * dt;
+  }
+
+  /**
+   * The push along the wheel that would stop the tread slipping by the end of
+   * the step. The wheel and the robot both give: the wheel through its
+   * inertia, the robot through its share of the mass.
+   */
+  private double getAlongForce(SwerveModuleIO_Sim module, double alongVelocity, double dt) {
+    double wheelMobility = WHEEL_RADIUS * WHEEL_RADIUS / SimConstants.DRIVE_WHEEL_MOI;
+    double nextSurfaceSpeed = module.getWheelSurfaceSpeed()
+        + module.getDriveTorque() * WHEEL_RADIUS / SimConstants.DRIVE_WHEEL_MOI * dt;
+    return (nextSurfaceSpeed - alongVelocity) / (dt * (wheelMobility + 1 / massPerWheel));
+  }
+
+  /** The field showing the true pose, for other sims to draw on. */
+  public Field2d getField() {
+    return field;
+  }
+
+  /** Where the robot really is. */
+  public Pose2d getPose() {
+    return pose;
+  }
+
+  /** Picks the robot up and puts it down, stopped, at {@code pose}. */
+  public void resetPose(Pose2d pose) {
+    this.pose = pose;
+    x = pose.getX();
+    y = pose.getY();
+    heading = pose.getRotation().getRadians();
+    xVelocity = 0;
+    yVelocity = 0;
+    angularVelocity = 0;
+    gyro.setYaw(heading + SimNoise.stepGyroError(0));
+  }
+}
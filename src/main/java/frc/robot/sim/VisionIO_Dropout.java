@@ -0,0 +1,28 @@
+package frc.robot.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.photonvision.EstimatedRobotPose;
+
+import frc.robot.subsystems.drive.VisionIO;
+
+/** Loses frames from another {@link VisionIO} as often as {@link SimNoise} says. */
+public class VisionIO_Dropout implements VisionIO {
+  private final VisionIO visionIO;
+  private final List<EstimatedRobotPose> poses = new ArrayList<>();
+
+  public VisionIO_Dropout(VisionIO visionIO) {
+    this.visionIO = visionIO;
+  }
+
+  public List<EstimatedRobotPose> getVisionPoses() {
+    poses.clear();
+    for (EstimatedRobotPose pose : visionIO.getVisionPoses()) {
+      if (!SimNoise.dropVisionFrame()) {
+        poses.add(pose);
+      }
+    }
+    return poses;
+  }
+}
@@ -4,12 +4,22 @@
 
 package frc.robot.subsystems.Indexer;
 
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.subsystems.Indexer.IndexerIO.IndexerIOInputs;
+import frc.utils.LoggedInputs;
+import frc.utils.LoopProfiler;
+import frc.utils.Telemetry;
+import frc.utils.Telemetry.Tier;
 
 public class Indexer extends SubsystemBase {
+  private final Telemetry.Group telemetry = Telemetry.group("indexer", Tier.CRITICAL);
+  private final Telemetry.BooleanEntry isIntookedEntry = telemetry.addBoolean(" isIntooked");
+
+  private final LoopProfiler.Section profile = LoopProfiler.section("Indexer");
 
   private IndexerIO indexerIO;
+  private final IndexerIOInputs inputs = new IndexerIOInputs();
+  private final LoggedInputs loggedInputs = new LoggedInputs("Indexer", inputs);
   public boolean isIntooked = false;
 
   /** Creates a new Indexer. */
@@ -26,7 +36,7 @@ public class Indexer extends SubsystemBase {
   }
 
   public double getCurrent() {
-    return indexerIO.getCurrent();
+    return inputs.currentAmps;
   }
 
   public void setMotor(double indexerSpeed) {
@@ -39,7 +49,7 @@ public class Indexer extends SubsystemBase {
   }
   // returns speed of the indexer
   public double getEncoderSpeed() {
-    return indexerIO.getEncoderSpeed();
+    return inputs.velocity;
   }
 
   public void setCurrentLimit(int current) {
@@ -47,12 +57,16 @@ public class Indexer extends SubsystemBase {
   }
 
   public boolean getIsBeamBroken() {
-    return indexerIO.getIsBeamBroken();
+    return inputs.beamBroken;
   }
 
   @Override
   public void periodic() {
+    profile.start();
+    indexerIO.updateInputs(inputs);
+    loggedInputs.update();
     indexerIO.periodicUpdate();
-    SmartDashboard.putBoolean("indexer/ isIntooked", isIntooked);
+    isIntookedEntry.set(isIntooked);
+    profile.stop();
   }
 }
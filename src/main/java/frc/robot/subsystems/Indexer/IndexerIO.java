@@ -1,6 +1,23 @@
 package frc.robot.subsystems.Indexer;
 
 public interface IndexerIO {
+    public static class IndexerIOInputs {
+        // no position: its status frame is turned off, see StatusFrames.VELOCITY_ONLY
+        public double velocity = 0.0;
+        public double currentAmps = 0.0;
+        public boolean beamBroken = false;
+    }
+
+    /**
+     * Reads every sensor value once. Called once per loop; the subsystem reads
+     * from the inputs instead of the hardware.
+     */
+    public default void updateInputs(IndexerIOInputs inputs) {
+        inputs.velocity = getEncoderSpeed();
+        inputs.currentAmps = getCurrent();
+        inputs.beamBroken = getIsBeamBroken();
+    }
+
     public void setMotor(double speed);
 
     public double getCurrent();
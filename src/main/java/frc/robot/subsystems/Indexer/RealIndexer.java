@@ -1,18 +1,22 @@
 package frc.robot.subsystems.Indexer;
 
 import com.revrobotics.CANSparkLowLevel.MotorType;
-import com.revrobotics.CANSparkLowLevel;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.SparkPIDController;
 
 import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Constants;
 import frc.robot.Constants.IndexerConstants; 
 import frc.utils.MotorUtil;
+import frc.utils.MotorUtil.StatusFrames;
+import frc.utils.Telemetry;
+import frc.utils.Telemetry.Tier;
 
 public class RealIndexer implements IndexerIO {
+    private final Telemetry.Group telemetry = Telemetry.group("indexer", Tier.CRITICAL);
+    private final Telemetry.BooleanEntry isIntookedEntry = telemetry.addBoolean("isIntooked:");
+    private final Telemetry.BooleanEntry beamBrokenEntry = telemetry.addBoolean("getIsBeamBroken");
 
     public static CANSparkMax indexerMotorController;
     public static RelativeEncoder indexerEncoder;
@@ -25,17 +29,12 @@ public class RealIndexer implements IndexerIO {
 
     public RealIndexer() {
         indexerMotorController = MotorUtil.createSparkMAX(IndexerConstants.INDEXER_MOTOR_ID, MotorType.kBrushless,
-                Constants.NEO550_CURRENT_LIMIT, false, true, slewRate);
+                Constants.NEO550_CURRENT_LIMIT, false, true, slewRate, StatusFrames.VELOCITY_ONLY);
 
         // initialize motor encoder
         indexerEncoder = indexerMotorController.getEncoder();
         indexerSensorTop = new DigitalInput(IndexerConstants.INDEXER_SENSOR_CHANNEL_TOP);
         indexerSensorBottom = new DigitalInput(IndexerConstants.INDEXER_SENSOR_CHANNEL_BOTTOM);
-        indexerMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus2, 32767);
-        indexerMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus3, 32767);
-        indexerMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus4, 32767);
-        indexerMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus5, 32767);
-        indexerMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus6, 32767);
     }
 
 
@@ -65,8 +64,8 @@ public class RealIndexer implements IndexerIO {
 
     @Override
     public void periodicUpdate() {
-        SmartDashboard.putBoolean("indexer/isIntooked:", isIntooked);
-        SmartDashboard.putBoolean("indexer/getIsBeamBroken", getIsBeamBroken());
+        isIntookedEntry.set(isIntooked);
+        beamBrokenEntry.set(getIsBeamBroken());
     }
 
     @Override
@@ -0,0 +1,53 @@
+package frc.robot.subsystems.Indexer;
+
+/**
+ * Stands in for the real indexer when replaying a log. The inputs are filled
+ * in from the log, so every getter just returns them and outputs go nowhere.
+ * The beam break override is already part of the logged beam break value.
+ * The encoder position isn't logged, so it reads 0.
+ */
+public class ReplayIndexer implements IndexerIO {
+
+    private IndexerIOInputs inputs = new IndexerIOInputs();
+
+    @Override
+    public void updateInputs(IndexerIOInputs inputs) {
+        this.inputs = inputs;
+    }
+
+    @Override
+    public void setMotor(double speed) {
+    }
+
+    @Override
+    public double getCurrent() {
+        return inputs.currentAmps;
+    }
+
+    @Override
+    public double getEncoderSpeed() {
+        return inputs.velocity;
+    }
+
+    @Override
+    public double getEncoderPosition() {
+        return 0;
+    }
+
+    @Override
+    public void setCurrentLimit(int current) {
+    }
+
+    @Override
+    public void periodicUpdate() {
+    }
+
+    @Override
+    public boolean getIsBeamBroken() {
+        return inputs.beamBroken;
+    }
+
+    @Override
+    public void setIsOverride() {
+    }
+}
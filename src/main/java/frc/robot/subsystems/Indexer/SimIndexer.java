@@ -1,8 +1,11 @@
 package frc.robot.subsystems.Indexer;
 
 import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.simulation.DCMotorSim;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Constants.SimConstants;
+import frc.utils.DeltaTimer;
 import frc.utils.SimEncoder;
 
 public class SimIndexer implements IndexerIO {
@@ -10,15 +13,28 @@ public class SimIndexer implements IndexerIO {
     private DCMotorSim indexerMotorSim;
     public boolean isIntooked = false;
 
+    private final DeltaTimer deltaTimer = new DeltaTimer();
+    private double speed = 0;
+    // set by the game piece sim
+    private boolean isBeamBroken = false;
+
     public SimIndexer() {
         indexerEncoderSim = new SimEncoder("indexer");
-        indexerMotorSim = new DCMotorSim(DCMotor.getNeo550(1), 1, 1);
-        SmartDashboard.putNumber("indexer current sim", 0);
-        SmartDashboard.putNumber("indexer sim velocity", 0);
+        indexerMotorSim = new DCMotorSim(DCMotor.getNeo550(1), SimConstants.INDEXER_GEARING,
+                SimConstants.FEED_ROLLER_MOI);
     }
 
     public void setMotor(double speed) {
-        indexerMotorSim.setInput(speed);
+        this.speed = speed;
+    }
+
+    /** How fast the rollers' surface is moving a note through, in meters per second. */
+    public double getRollerSurfaceSpeed() {
+        return indexerMotorSim.getAngularVelocityRadPerSec() * SimConstants.FEED_ROLLER_RADIUS;
+    }
+
+    public void setIsBeamBroken(boolean isBeamBroken) {
+        this.isBeamBroken = isBeamBroken;
     }
 
     public double getCurrent() {
@@ -38,11 +54,17 @@ public class SimIndexer implements IndexerIO {
     }
 
     public void periodicUpdate() {
+        indexerMotorSim.setInputVoltage(speed * RobotController.getBatteryVoltage());
+        indexerMotorSim.update(deltaTimer.get());
+        // same units as the SPARK MAX's encoder: motor rotations and RPM
+        indexerEncoderSim.setDistance(indexerMotorSim.getAngularPositionRotations()
+                * SimConstants.INDEXER_GEARING);
+        indexerEncoderSim.setSpeed(indexerMotorSim.getAngularVelocityRPM() * SimConstants.INDEXER_GEARING);
         SmartDashboard.putNumber("Driver/indexer/current (A)", getCurrent());
     }
 
     public boolean getIsBeamBroken() {
-        return false;
+        return isBeamBroken;
     }
 
     @Override
@@ -6,8 +6,10 @@ import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.subsystems.Indexer.Indexer;
 import frc.robot.subsystems.drive.VisionIO;
+import frc.utils.LoopProfiler;
 
 public class LED extends SubsystemBase {
+    private final LoopProfiler.Section profile = LoopProfiler.section("LED");
     AddressableLED m_led = new AddressableLED(9);
     AddressableLEDBuffer m_ledBuffer = new AddressableLEDBuffer(15);
     int m_rainbowFirstPixelHue = 0;
@@ -69,11 +71,13 @@ public class LED extends SubsystemBase {
     }
 
     public void periodic() {
+        profile.start();
         if (isAutonomous) {
             rainbow();
         } else {
             teleopLed();
         }
         m_led.setData(m_ledBuffer);
+        profile.stop();
     }
 }
\ No newline at end of file
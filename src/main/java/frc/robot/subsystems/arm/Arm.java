@@ -8,15 +8,26 @@ import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
 import edu.wpi.first.math.trajectory.TrapezoidProfile.State;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.ProfiledPIDSubsystem;
 import frc.robot.Constants;
 import frc.robot.Constants.ArmConstants;
+import frc.robot.subsystems.arm.ArmIO.ArmIOInputs;
+import frc.utils.LoggedInputs;
+import frc.utils.LoopProfiler;
 import frc.utils.PIDUtil;
+import frc.utils.Telemetry;
+import frc.utils.Telemetry.Tier;
 
 public class Arm extends ProfiledPIDSubsystem {
+  private final Telemetry.Group telemetry = Telemetry.group("arm", Tier.DEBUG);
+  private final Telemetry.DoubleEntry setpointPositionEntry = telemetry.addDouble("setpoint pos");
+  private final Telemetry.DoubleEntry setpointVelocityEntry = telemetry.addDouble("setpoint vel");
+
   /** Creates a new Arm. */
   private ArmIO armIO;
+  private final ArmIOInputs inputs = new ArmIOInputs();
+  private final LoggedInputs loggedInputs = new LoggedInputs("Arm", inputs);
+  private final LoopProfiler.Section profile = LoopProfiler.section("Arm");
 
   public static double speedFromArmHeight;
 
@@ -34,21 +45,28 @@ public class Arm extends ProfiledPIDSubsystem {
   public Arm(ArmIO io) {
     super(new ProfiledPIDController(kpPos, 0, kd, constraints));
     armIO = io;
+    armIO.updateInputs(inputs);
+    loggedInputs.update();
   }
 
   @Override
   public void periodic() {
+    profile.start();
+    // before the PID reads the measurement
+    armIO.updateInputs(inputs);
+    loggedInputs.update();
     // Call periodic method in profile pid subsystem to prevent overriding
     super.periodic();
     armIO.periodicUpdate();
+    profile.stop();
   }
 
   public double getEncoderPosition() {
-    return armIO.getEncoderPosition();
+    return inputs.positionRad;
   }
 
   public double getEncoderSpeed() {
-    return armIO.getEncoderSpeed();
+    return inputs.velocityRadPerSec;
   }
 
   public void setSpeed(double speed) {
@@ -60,13 +78,13 @@ public class Arm extends ProfiledPIDSubsystem {
   }
 
   public double getArmCurrent() {
-    return armIO.getArmCurrent();
+    return inputs.currentAmps;
   }
 
   @Override
   protected void useOutput(double output, State setpoint) {
-    SmartDashboard.putNumber("arm/setpoint pos", setpoint.position);
-    SmartDashboard.putNumber("arm/setpoint vel", setpoint.velocity);
+    setpointPositionEntry.set(setpoint.position);
+    setpointVelocityEntry.set(setpoint.velocity);
 
     // Calculate the feedforward from the setpoint
     double speed = feedForward * setpoint.velocity;
@@ -80,7 +98,7 @@ public class Arm extends ProfiledPIDSubsystem {
 
   @Override
   protected double getMeasurement() {
-    return armIO.getEncoderPosition();
+    return inputs.positionRad;
   }
 
   public double getGoal() {
@@ -93,7 +111,7 @@ public class Arm extends ProfiledPIDSubsystem {
   }
 
   public double getAbsoluteEncoderPosition() {
-    return armIO.getAbsoluteEncoderPosition();
+    return inputs.absolutePositionRad;
   }
 
   public void setEncoderPosition(double angle) {
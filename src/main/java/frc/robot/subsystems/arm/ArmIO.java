@@ -3,6 +3,24 @@ package frc.robot.subsystems.arm;
 import edu.wpi.first.math.geometry.Pose2d;
 
 public interface ArmIO {
+    public static class ArmIOInputs {
+        public double positionRad = 0.0;
+        public double velocityRadPerSec = 0.0;
+        public double absolutePositionRad = 0.0;
+        public double currentAmps = 0.0;
+    }
+
+    /**
+     * Reads every sensor value once. Called once per loop; the subsystem reads
+     * from the inputs instead of the hardware.
+     */
+    public default void updateInputs(ArmIOInputs inputs) {
+        inputs.positionRad = getEncoderPosition();
+        inputs.velocityRadPerSec = getEncoderSpeed();
+        inputs.absolutePositionRad = getAbsoluteEncoderPosition();
+        inputs.currentAmps = getArmCurrent();
+    }
+
     public double getEncoderPosition();
 
     public double getEncoderSpeed();
@@ -10,13 +10,19 @@ import com.revrobotics.SparkAbsoluteEncoder.Type;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Constants;
 import frc.robot.Constants.ArmConstants;
 import frc.robot.Constants.VisionConstants;
 import frc.utils.MotorUtil;
+import frc.utils.MotorUtil.StatusFrames;
+import frc.utils.Telemetry;
+import frc.utils.Telemetry.Tier;
 
 public class RealArm implements ArmIO {
+    private final Telemetry.Group telemetry = Telemetry.group("arm", Tier.DIAGNOSTIC);
+    private final Telemetry.DoubleEntry positionEntry = telemetry.addDouble("arm position");
+    private final Telemetry.DoubleEntry absolutePositionEntry = telemetry.addDouble("arm absolute position");
+
     private static CANSparkMax armMotorControllerLeft;
     private static CANSparkMax armMotorControllerRight;
     public static AbsoluteEncoder armAbsoluteEncoderRight;
@@ -33,30 +39,38 @@ public class RealArm implements ArmIO {
     public RealArm() {
         // make the motor controllers
         armMotorControllerRight = MotorUtil.createSparkMAX(ArmConstants.ARM_MOTOR_ID_RIGHT, MotorType.kBrushless,
-                Constants.NEO_CURRENT_LIMIT,
-                true, true, 0);
+                MotorUtil.baseConfig(Constants.NEO_CURRENT_LIMIT, true, true, 0)
+                        // setting position/velocity conversion factors, offsets
+                        .add("absolute position conversion", ArmConstants.ABSOLUTE_RADIANS_PER_REVOLUTION,
+                                (spark, value) -> absoluteEncoder(spark).setPositionConversionFactor(value))
+                        .add("absolute velocity conversion", ArmConstants.ABSOLUTE_RADIANS_PER_REVOLUTION / 60,
+                                (spark, value) -> absoluteEncoder(spark).setVelocityConversionFactor(value))
+                        .add("absolute inverted", true,
+                                (spark, value) -> absoluteEncoder(spark).setInverted(value != 0))
+                        .add("absolute zero offset", ArmConstants.ARM_ABSOLUTE_MEASURED - ArmConstants.ARM_ABSOLUTE_CAD,
+                                (spark, value) -> absoluteEncoder(spark).setZeroOffset(value))
+                        .add("position conversion", ArmConstants.RADIANS_PER_REVOLUTION,
+                                (spark, value) -> spark.getEncoder().setPositionConversionFactor(value))
+                        .add("velocity conversion", ArmConstants.RADIANS_PER_REVOLUTION / 60,
+                                (spark, value) -> spark.getEncoder().setVelocityConversionFactor(value)),
+                StatusFrames.LEADER_WITH_ABSOLUTE);
+        // set the left motor to follow the right one, but inverted since left isn't
+        // reversed and right is
         armMotorControllerLeft = MotorUtil.createSparkMAX(ArmConstants.ARM_MOTOR_ID_LEFT, MotorType.kBrushless,
-                Constants.NEO_CURRENT_LIMIT,
-                false, true, 0);
+                MotorUtil.baseConfig(Constants.NEO_CURRENT_LIMIT, false, true, 0)
+                        .add("follow", ArmConstants.ARM_MOTOR_ID_RIGHT, (spark, value) -> spark
+                                .follow(CANSparkMax.ExternalFollower.kFollowerSpark, (int) value, true)),
+                StatusFrames.FOLLOWER);
 
         // make the encoders
         // .044
-        armAbsoluteEncoderRight = armMotorControllerRight.getAbsoluteEncoder(Type.kDutyCycle);
+        armAbsoluteEncoderRight = absoluteEncoder(armMotorControllerRight);
         armEncoderRight = armMotorControllerRight.getEncoder();
-
-        // setting position/velocity conversion factors, offsets
-        armAbsoluteEncoderRight.setPositionConversionFactor(ArmConstants.ABSOLUTE_RADIANS_PER_REVOLUTION);
-        armAbsoluteEncoderRight.setVelocityConversionFactor(ArmConstants.ABSOLUTE_RADIANS_PER_REVOLUTION / 60);
-        armAbsoluteEncoderRight.setInverted(true);
-        // armAbsoluteEncoderRight.setZeroOffset(0);
-        armAbsoluteEncoderRight.setZeroOffset(ArmConstants.ARM_ABSOLUTE_MEASURED - ArmConstants.ARM_ABSOLUTE_CAD);
-        armEncoderRight.setPositionConversionFactor(ArmConstants.RADIANS_PER_REVOLUTION);
-        armEncoderRight.setVelocityConversionFactor(ArmConstants.RADIANS_PER_REVOLUTION / 60);
         armEncoderRight.setPosition(armAbsoluteEncoderRight.getPosition());
+    }
 
-        // set the left motor to follow the right one, but inverted since left isn't
-        // reversed and right is
-        armMotorControllerLeft.follow(armMotorControllerRight, true);
+    private static AbsoluteEncoder absoluteEncoder(CANSparkMax spark) {
+        return spark.getAbsoluteEncoder(Type.kDutyCycle);
     }
 
     public double getAbsoluteEncoderPosition() {
@@ -65,8 +79,8 @@ public class RealArm implements ArmIO {
 
     @Override
     public void periodicUpdate() {
-        SmartDashboard.putNumber("arm/arm position", getEncoderPosition());
-        SmartDashboard.putNumber("arm/arm absolute position", getAbsoluteEncoderPosition());
+        positionEntry.set(getEncoderPosition());
+        absolutePositionEntry.set(getAbsoluteEncoderPosition());
     }
 
     @Override
@@ -95,6 +109,11 @@ public class RealArm implements ArmIO {
     }
 
     public double getDesiredArmAngle(Pose2d robotPose, Pose2d speakerPose) {
+        return calculateDesiredArmAngle(robotPose, speakerPose);
+    }
+
+    /** The shot angle fit to this arm, shared with {@link ReplayArm}. */
+    static double calculateDesiredArmAngle(Pose2d robotPose, Pose2d speakerPose) {
         double distToSpeaker;
         double desiredArmAngleRadians;
         distToSpeaker = PhotonUtils.getDistanceToPose(robotPose, speakerPose);
@@ -0,0 +1,53 @@
+package frc.robot.subsystems.arm;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * Stands in for the real arm when replaying a log. The inputs are filled in
+ * from the log, so every getter just returns them and outputs go nowhere.
+ */
+public class ReplayArm implements ArmIO {
+
+    private ArmIOInputs inputs = new ArmIOInputs();
+
+    @Override
+    public void updateInputs(ArmIOInputs inputs) {
+        this.inputs = inputs;
+    }
+
+    @Override
+    public double getEncoderPosition() {
+        return inputs.positionRad;
+    }
+
+    @Override
+    public double getEncoderSpeed() {
+        return inputs.velocityRadPerSec;
+    }
+
+    @Override
+    public void setSpeed(double speed) {
+    }
+
+    @Override
+    public void periodicUpdate() {
+    }
+
+    @Override
+    public double getArmCurrent() {
+        return inputs.currentAmps;
+    }
+
+    @Override
+    public double getAbsoluteEncoderPosition() {
+        return inputs.absolutePositionRad;
+    }
+
+    @Override
+    public void setEncoderPosition(double angle) {
+    }
+
+    public double getDesiredArmAngle(Pose2d robotPose, Pose2d speakerPose) {
+        return RealArm.calculateDesiredArmAngle(robotPose, speakerPose);
+    }
+}
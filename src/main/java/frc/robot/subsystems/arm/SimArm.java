@@ -7,6 +7,7 @@ import edu.wpi.first.wpilibj.simulation.BatterySim;
 import edu.wpi.first.wpilibj.simulation.RoboRioSim;
 import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import frc.robot.Constants.ArmConstants;
+import frc.utils.DeltaTimer;
 import frc.utils.SimEncoder;
 
 public class SimArm implements ArmIO {
@@ -15,6 +16,7 @@ public class SimArm implements ArmIO {
     private SingleJointedArmSim armSim;
     private double armPower;
     public static double speedFromArmHeight;
+    private final DeltaTimer deltaTimer = new DeltaTimer();
 
     public SimArm() {
         armEncoderSim = new SimEncoder("Elevator");
@@ -47,8 +49,8 @@ public class SimArm implements ArmIO {
     public void periodicUpdate() {
         // sets input for elevator motor in simulation
         armSim.setInput(armPower * RobotController.getBatteryVoltage());
-        // Next, we update it. The standard loop time is 20ms.
-        armSim.update(0.02);
+        // Next, we update it by however long it's been since the last loop
+        armSim.update(deltaTimer.get());
         // Finally, we set our simulated encoder's readings
         armEncoderSim.setDistance(armSim.getAngleRads());
         // sets our simulated encoder speeds
@@ -1,9 +1,15 @@
 package frc.robot.subsystems.climber;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.subsystems.climber.ClimberIO.ClimberIOInputs;
+import frc.utils.LoggedInputs;
+import frc.utils.LoopProfiler;
 
 public class Climber extends SubsystemBase {
+    private final LoopProfiler.Section profile = LoopProfiler.section("Climber");
     private ClimberIO climberIO;
+    private final ClimberIOInputs inputs = new ClimberIOInputs();
+    private final LoggedInputs loggedInputs = new LoggedInputs("Climber", inputs);
 
     public Climber(ClimberIO io) {
 
@@ -33,7 +39,11 @@ public class Climber extends SubsystemBase {
 
     @Override
     public void periodic(){
+        profile.start();
+        climberIO.updateInputs(inputs);
+        loggedInputs.update();
         climberIO.periodicUpdate(); 
+        profile.stop();
     }
 
     public double getLeftEncoderPosition(){
@@ -1,6 +1,32 @@
 package frc.robot.subsystems.climber;
 
 public interface ClimberIO {
+    public static class ClimberIOInputs {
+        public double leftPosition = 0.0;
+        public double rightPosition = 0.0;
+        public boolean leftExtended = false;
+        public boolean rightExtended = false;
+        public boolean leftRetracted = false;
+        public boolean rightRetracted = false;
+        public boolean leftStalling = false;
+        public boolean rightStalling = false;
+    }
+
+    /**
+     * Reads every sensor value once. Called once per loop; the subsystem reads
+     * from the inputs instead of the hardware.
+     */
+    public default void updateInputs(ClimberIOInputs inputs) {
+        inputs.leftPosition = getLeftEncoderPosition();
+        inputs.rightPosition = getRightEncoderPosition();
+        inputs.leftExtended = isLeftExtended();
+        inputs.rightExtended = isRightExtended();
+        inputs.leftRetracted = isLeftRetracted();
+        inputs.rightRetracted = isRightRetracted();
+        inputs.leftStalling = isLeftSideStalling();
+        inputs.rightStalling = isRightSideStalling();
+    }
+
     public void setLeftSpeed(double speed); 
     public void setRightSpeed(double speed); 
     public boolean isLeftExtended();
@@ -9,12 +9,30 @@ import com.revrobotics.SparkPIDController;
 import com.revrobotics.CANSparkBase.SoftLimitDirection;
 
 import edu.wpi.first.math.filter.Debouncer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Constants;
 import frc.robot.Constants.ClimberConstants;
 import frc.utils.MotorUtil;
+import frc.utils.MotorUtil.StatusFrames;
+import frc.utils.SparkConfig;
+import frc.utils.Telemetry;
+import frc.utils.Telemetry.Tier;
 
 public class ClimberReal implements ClimberIO {
+    private final Telemetry.Group telemetry = Telemetry.group("climber", Tier.DIAGNOSTIC);
+    private final Telemetry.DoubleEntry leftHeightEntry = telemetry.addDouble("Left Climber Height");
+    private final Telemetry.DoubleEntry rightHeightEntry = telemetry.addDouble("Right Climber Hieght");
+    private final Telemetry.DoubleEntry leftCurrentEntry = telemetry.addDouble("left climber current");
+    private final Telemetry.BooleanEntry leftRetractedEntry = telemetry.addBoolean("is left retracted");
+    private final Telemetry.DoubleEntry rightCurrentEntry = telemetry.addDouble("right climber current");
+    private final Telemetry.BooleanEntry rightRetractedEntry = telemetry.addBoolean("is right retracted");
+    private final Telemetry.DoubleEntry leftSpeedEntry = telemetry.addDouble("leftspeed", Tier.DEBUG);
+    private final Telemetry.BooleanEntry leftExtendedEntry = telemetry.addBoolean("is left extended");
+    private final Telemetry.BooleanEntry rightExtendedEntry = telemetry.addBoolean("is right extended");
+    private final Telemetry.BooleanEntry leftStallingEntry = telemetry.addBoolean("is left side stalling");
+    private final Telemetry.BooleanEntry rightStallingEntry = telemetry.addBoolean("is right side stalling");
+    private final Telemetry.BooleanEntry atBottomLeftEntry = telemetry.addBoolean("at bottom left", Tier.DEBUG);
+    private final Telemetry.BooleanEntry atTopLeftEntry = telemetry.addBoolean("at top left", Tier.DEBUG);
+    private final Telemetry.BooleanEntry leftOnlyStallingEntry = telemetry.addBoolean("left stalling", Tier.DEBUG);
 
     private CANSparkMax leftMotorController;
     private CANSparkMax rightMotorController;
@@ -34,11 +52,11 @@ public class ClimberReal implements ClimberIO {
     public ClimberReal() {
 
         //TODO no more PID
-        // initialize motor controllers
+        // initialize motor controllers, inverted so climber climbs right
         leftMotorController = MotorUtil.createSparkMAX(ClimberConstants.LEFT_CLIMBER_MOTOR_ID, MotorType.kBrushless, 
-        50,true,true, 0.0);
+                climberConfig(false), StatusFrames.POSITION);
         rightMotorController = MotorUtil.createSparkMAX(ClimberConstants.RIGHT_CLIMBER_MOTOR_ID, MotorType.kBrushless,
-                50, true, true, 0.0);
+                climberConfig(true), StatusFrames.POSITION);
 
         // initialize motor encoders
         leftEncoder = leftMotorController.getEncoder();
@@ -48,20 +66,6 @@ public class ClimberReal implements ClimberIO {
         leftDebouncer = new Debouncer(0.025);
         rightDebouncer = new Debouncer(0.025);
 
-        // converts encoder rotations to distance (meters)
-        leftEncoder.setPositionConversionFactor(Constants.ClimberConstants.ENCODER_METERS);
-        rightEncoder.setPositionConversionFactor(Constants.ClimberConstants.ENCODER_METERS);
-
-        leftMotorController.setSoftLimit(SoftLimitDirection.kReverse, (float)(ClimberConstants.MIN_HEIGHT + .01));
-        leftMotorController.enableSoftLimit(SoftLimitDirection.kReverse, true);
-        rightMotorController.setSoftLimit(SoftLimitDirection.kReverse, (float)(ClimberConstants.MIN_HEIGHT + .01));
-        rightMotorController.enableSoftLimit(SoftLimitDirection.kReverse, true);
-
-        leftMotorController.setSoftLimit(SoftLimitDirection.kForward, (float)(ClimberConstants.MAX_HEIGHT - .01));
-        leftMotorController.enableSoftLimit(SoftLimitDirection.kForward, true);
-        rightMotorController.setSoftLimit(SoftLimitDirection.kForward, (float)(ClimberConstants.MAX_HEIGHT - .01));
-        rightMotorController.enableSoftLimit(SoftLimitDirection.kForward, true);
-
         // initialize motor pid controllers
         leftPIDController = leftMotorController.getPIDController();
         rightPIDController = rightMotorController.getPIDController();
@@ -81,15 +85,6 @@ public class ClimberReal implements ClimberIO {
         // rightPIDController.setFF(CLIMBER_KF);
         // rightPIDController.setOutputRange(CLIMBER_K_MIN_OUTPUT, CLIMBER_K_MAX_OUTPUT);
 
-        // invert the motor controllers so climber climbs right
-        leftMotorController.setInverted(false);
-        rightMotorController.setInverted(true);
-
-        // set encoder velocity to meters/second
-        leftEncoder.setVelocityConversionFactor(Constants.ClimberConstants.ENCODER_VELOCITY_MPS);
-        rightEncoder.setVelocityConversionFactor(Constants.ClimberConstants.ENCODER_VELOCITY_MPS);
-
-
         // reset encoders to zero
         //leftEncoder.setPosition(0.0);
         //rightEncoder.setPosition(0.0);
@@ -103,21 +98,39 @@ public class ClimberReal implements ClimberIO {
         }
     }
 
+    private static SparkConfig climberConfig(boolean isInverted) {
+        return MotorUtil.baseConfig(50, isInverted, true, 0.0)
+                // converts encoder rotations to distance (meters)
+                .add("position conversion", Constants.ClimberConstants.ENCODER_METERS,
+                        (spark, value) -> spark.getEncoder().setPositionConversionFactor(value))
+                // set encoder velocity to meters/second
+                .add("velocity conversion", Constants.ClimberConstants.ENCODER_VELOCITY_MPS,
+                        (spark, value) -> spark.getEncoder().setVelocityConversionFactor(value))
+                .add("reverse soft limit", ClimberConstants.MIN_HEIGHT + .01,
+                        (spark, value) -> spark.setSoftLimit(SoftLimitDirection.kReverse, (float) value))
+                .add("reverse soft limit enabled", true,
+                        (spark, value) -> spark.enableSoftLimit(SoftLimitDirection.kReverse, value != 0))
+                .add("forward soft limit", ClimberConstants.MAX_HEIGHT - .01,
+                        (spark, value) -> spark.setSoftLimit(SoftLimitDirection.kForward, (float) value))
+                .add("forward soft limit enabled", true,
+                        (spark, value) -> spark.enableSoftLimit(SoftLimitDirection.kForward, value != 0));
+    }
+
     @Override
 
     public void periodicUpdate() {
         // This method will be called once per scheduler run
-        SmartDashboard.putNumber("climber/Left Climber Height", getLeftEncoderPosition());
-        SmartDashboard.putNumber("climber/Right Climber Hieght", getRightEncoderPosition());
-        SmartDashboard.putNumber("climber/left climber current", leftMotorController.getOutputCurrent());
-        SmartDashboard.putBoolean("climber/is left retracted", isLeftRetracted());
-        SmartDashboard.putNumber("climber/right climber current", rightMotorController.getOutputCurrent());
-        SmartDashboard.putBoolean("climber/is right retracted", isRightRetracted());
-        SmartDashboard.putNumber("climber/leftspeed", leftMotorController.getAppliedOutput());
-        SmartDashboard.putBoolean("climber/is left extended", isLeftExtended());
-        SmartDashboard.putBoolean("climber/is right extended", isRightExtended());
-        SmartDashboard.putBoolean("climber/is left side stalling", isLeftSideStalling());
-        SmartDashboard.putBoolean("climber/is right side stalling", isRightSideStalling());
+        leftHeightEntry.set(getLeftEncoderPosition());
+        rightHeightEntry.set(getRightEncoderPosition());
+        leftCurrentEntry.set(leftMotorController.getOutputCurrent());
+        leftRetractedEntry.set(isLeftRetracted());
+        rightCurrentEntry.set(rightMotorController.getOutputCurrent());
+        rightRetractedEntry.set(isRightRetracted());
+        leftSpeedEntry.set(leftMotorController.getAppliedOutput());
+        leftExtendedEntry.set(isLeftExtended());
+        rightExtendedEntry.set(isRightExtended());
+        leftStallingEntry.set(isLeftSideStalling());
+        rightStallingEntry.set(isRightSideStalling());
 
     }
 
@@ -125,9 +138,9 @@ public class ClimberReal implements ClimberIO {
     public void setLeftSpeed(double speed) {
 
 
-        SmartDashboard.putBoolean("climber/at bottom left", (isLeftRetracted() && speed < 0));
-        SmartDashboard.putBoolean("climber/at top left", (isLeftExtended() && speed > 0));
-        SmartDashboard.putBoolean("climber/left stalling", (isLeftSideStalling() && !isRightSideStalling()));
+        atBottomLeftEntry.set((isLeftRetracted() && speed < 0));
+        atTopLeftEntry.set((isLeftExtended() && speed > 0));
+        leftOnlyStallingEntry.set((isLeftSideStalling() && !isRightSideStalling()));
         if ((isLeftRetracted() && speed < 0) || ((isLeftExtended() && speed > 0)) || (isLeftSideStalling() && !isRightSideStalling() && speed < 0)) {
             leftMotorController.set(0);
         } else if (leftEncoder.getPosition() < 0.10 && speed < 0) {
@@ -0,0 +1,56 @@
+package frc.robot.subsystems.climber;
+
+/**
+ * Stands in for the real climber when replaying a log. The inputs are filled
+ * in from the log, so every getter just returns them and outputs go nowhere.
+ */
+public class ClimberReplay implements ClimberIO {
+
+    private ClimberIOInputs inputs = new ClimberIOInputs();
+
+    @Override
+    public void updateInputs(ClimberIOInputs inputs) {
+        this.inputs = inputs;
+    }
+
+    public void setLeftSpeed(double speed) {
+    }
+
+    public void setRightSpeed(double speed) {
+    }
+
+    public boolean isLeftExtended() {
+        return inputs.leftExtended;
+    }
+
+    public boolean isRightExtended() {
+        return inputs.rightExtended;
+    }
+
+    public boolean isLeftRetracted() {
+        return inputs.leftRetracted;
+    }
+
+    public boolean isRightRetracted() {
+        return inputs.rightRetracted;
+    }
+
+    public double getLeftEncoderPosition() {
+        return inputs.leftPosition;
+    }
+
+    public double getRightEncoderPosition() {
+        return inputs.rightPosition;
+    }
+
+    public boolean isLeftSideStalling() {
+        return inputs.leftStalling;
+    }
+
+    public boolean isRightSideStalling() {
+        return inputs.rightStalling;
+    }
+
+    public void periodicUpdate() {
+    }
+}
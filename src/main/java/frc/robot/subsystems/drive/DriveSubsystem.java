@@ -4,10 +4,10 @@
 
 package frc.robot.subsystems.drive;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.photonvision.EstimatedRobotPose;
-import org.photonvision.PhotonUtils;
 
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.util.HolonomicPathFollowerConfig;
@@ -15,21 +15,18 @@ import com.pathplanner.lib.util.PIDConstants;
 import com.pathplanner.lib.util.PathPlannerLogging;
 import com.pathplanner.lib.util.ReplanningConfig;
 
-import edu.wpi.first.math.VecBuilder;
-import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
-import edu.wpi.first.math.filter.Debouncer;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.interpolation.TimeInterpolatableBuffer;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.math.util.Units;
-import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.networktables.StructArrayPublisher;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.Timer;
@@ -41,50 +38,74 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.Constants.AutoConstants;
 import frc.robot.Constants.DriveConstants;
+import frc.robot.Constants.ShooterConstants;
 import frc.robot.Constants.VisionConstants;
-import frc.robot.Robot;
 import frc.robot.subsystems.gyro.GyroIO;
+import frc.robot.subsystems.gyro.GyroIO.GyroIOInputs;
+import frc.utils.LoggedInputs;
+import frc.utils.LoopProfiler;
+import frc.utils.SwerveUtils;
+import frc.utils.Telemetry;
+import frc.utils.Telemetry.Tier;
 
 public class DriveSubsystem extends SubsystemBase {
+  private final LoopProfiler.Section profile = LoopProfiler.section("Drive");
+
+  /** Headings the driver can ask the robot to turn to and hold. */
+  public enum HeadingTarget {
+    NONE,
+    SPEAKER,
+    AMP,
+    SOURCE
+  }
 
   // vision
   private VisionIO visionIO;
-  private double MAX_VISION_UPDATE_SPEED_MPS = 0.5 * DriveConstants.MAX_SPEED_METERS_PER_SECOND;
-  private double velocityXMPS;
-  private double velocityYMPS;
-  private double velocityMPS;
+  private final VisionFilter visionFilter = new VisionFilter();
   private Pose2d visionEstimatedPose;
   private Pose3d visionEstimatedPose3d; // TODO: delete after testing :)
   public Pose2d robotPose;
   private Pose2d speakerPose;
-  private Transform2d poseDifference;
+  // where to aim so a shot taken while moving lands in the speaker
+  private Pose2d virtualSpeakerPose;
+  private final MovingShotSolver shotSolver = new MovingShotSolver(ShooterConstants.NOTE_EXIT_VELOCITY_MPS);
+  private Pose2d ampPose;
+  private Pose2d sourcePose;
 
   // apriltags
   public int speakerID;
   public int ampID;
+  public int sourceID;
   public boolean isAligned = false;
 
-  // PID for the speaker-aiming method
-  final double ANGULAR_P = 0.2; // TODO: tune
-  final double ANGULAR_D = 0;
-  PIDController keepPointedController = new PIDController(
-      ANGULAR_P, 0, ANGULAR_D);
-  final static double ANGLE_TO_SPEAKER_TOLERANCE_DEGREES = 5;
-
-  Optional<EstimatedRobotPose> possiblePose;
-
-  // correction PID
-  private double DRIVE_P = 1.1;
-  private double DRIVE_D = 0.05;
-
-  private PIDController drivePIDController = new PIDController(DRIVE_P, 0, DRIVE_D);
-
-  // debouncer for turning
-  private double ROTATION_DEBOUNCE_TIME = 0.5;
-  private Debouncer rotationDebouncer = new Debouncer(ROTATION_DEBOUNCE_TIME);
+  // heading hold and snap-to-angle
+  private final HeadingController headingController = new HeadingController(
+      DriveConstants.MAX_ANGULAR_SPEED,
+      DriveConstants.HEADING_MAX_ACCELERATION,
+      DriveConstants.HEADING_P,
+      DriveConstants.HEADING_D,
+      DriveConstants.HEADING_TOLERANCE);
+  private HeadingTarget headingTarget = HeadingTarget.NONE;
 
   // Odometry
   private SwerveDrivePoseEstimator poseEstimator;
+  // Pure odometry, never corrected by vision, so its history stays smooth.
+  // Same length as the pose estimator's own history.
+  private static final double POSE_HISTORY_SECONDS = 1.5;
+  private SwerveDriveOdometry odometry;
+  private final TimeInterpolatableBuffer<Pose2d> odometryHistory = TimeInterpolatableBuffer
+      .createBuffer(POSE_HISTORY_SECONDS);
+  private final OdometryThread odometryThread;
+  private final double[] odometrySample;
+  // the angles odometryPositions and odometryYaw were last made from
+  private final double[] odometryTurnRadians = new double[4];
+  private double odometryYawRadians = 0.0;
+  private Rotation2d odometryYaw = new Rotation2d();
+  private final SwerveModulePosition[] odometryPositions = new SwerveModulePosition[] {
+      new SwerveModulePosition(),
+      new SwerveModulePosition(),
+      new SwerveModulePosition(),
+      new SwerveModulePosition() };
 
   // swerve modules
   private SwerveModule frontLeft;
@@ -92,12 +113,18 @@ public class DriveSubsystem extends SubsystemBase {
   private SwerveModule rearLeft;
   private SwerveModule rearRight;
 
-  // Slew rate filter variables for controlling lateral acceleration
-  private double currentRotationRate = 0.0;
+  // keeps module setpoints within what the wheels can follow
+  private final SwerveSetpointGenerator setpointGenerator = new SwerveSetpointGenerator(
+      DriveConstants.MODULE_OFFSETS,
+      DriveConstants.MAX_SPEED_METERS_PER_SECOND,
+      DriveConstants.MAX_MODULE_ACCELERATION,
+      DriveConstants.MAX_MODULE_STEERING_SPEED);
 
   private double desiredAngle = 0;
 
   private GyroIO gyroIO;
+  private final GyroIOInputs gyroInputs = new GyroIOInputs();
+  private final LoggedInputs loggedGyroInputs = new LoggedInputs("Gyro", gyroInputs);
 
   private final Field2d field2d = new Field2d();
   private final Field2d visionField = new Field2d();
@@ -105,21 +132,50 @@ public class DriveSubsystem extends SubsystemBase {
   private FieldObject2d rearLeftField2dModule = field2d.getObject("rear left module");
   private FieldObject2d frontRightField2dModule = field2d.getObject("front right module");
   private FieldObject2d rearRightField2dModule = field2d.getObject("rear right module");
-
-  private ChassisSpeeds relativeRobotSpeeds;
-
-  public Rotation2d lastAngle = new Rotation2d();
-
-  StructArrayPublisher<SwerveModuleState> swerveModuleStatePublisher = NetworkTableInstance.getDefault()
-      .getStructArrayTopic("/SmartDashboard/Swerve/Current Modules States", SwerveModuleState.struct).publish();
-
-  StructArrayPublisher<SwerveModuleState> swerveModuleDesiredStatePublisher = NetworkTableInstance.getDefault()
-      .getStructArrayTopic("/SmartDashboard/Swerve/Desired Modules States", SwerveModuleState.struct).publish();
+  // the module markers' transforms, and the turn angles they were made from
+  private final Transform2d[] moduleFieldTransforms = new Transform2d[4];
+  private final double[] moduleFieldTurnRadians = new double[4];
+
+  // Scratch objects reused every loop so the control loop doesn't allocate
+  private final ChassisSpeeds relativeRobotSpeeds = new ChassisSpeeds();
+  private final ChassisSpeeds measuredRobotSpeeds = new ChassisSpeeds();
+  private final ChassisSpeeds stoppedSpeeds = new ChassisSpeeds();
+  private final SwerveModulePosition[] modulePositions = new SwerveModulePosition[4];
+  private final SwerveModuleState[] moduleStates = new SwerveModuleState[4];
+  private final SwerveModuleState[] desiredModuleStates = new SwerveModuleState[] {
+      new SwerveModuleState(),
+      new SwerveModuleState(),
+      new SwerveModuleState(),
+      new SwerveModuleState() };
+  private final SwerveModuleState[] xModuleStates = new SwerveModuleState[] {
+      new SwerveModuleState(0, Rotation2d.fromDegrees(45)),
+      new SwerveModuleState(0, Rotation2d.fromDegrees(-45)),
+      new SwerveModuleState(0, Rotation2d.fromDegrees(-45)),
+      new SwerveModuleState(0, Rotation2d.fromDegrees(45)) };
+
+
+  private final Telemetry.Group telemetry = Telemetry.group("", Tier.DIAGNOSTIC);
+  private final Telemetry.DoubleEntry frontLeftDistanceEntry = telemetry.addDouble("left front distance (meters)",
+      Tier.DEBUG);
+  private final Telemetry.DoubleEntry gyroAngleEntry = telemetry.addDouble("drive/gyro angle(degrees)", Tier.CRITICAL);
+  private final Telemetry.DoubleEntry visionAcceptedEntry = telemetry.addDouble("vision/accepted");
+  private final Telemetry.DoubleEntry visionOutlierEntry = telemetry.addDouble("vision/rejected outliers");
+  private final Telemetry.DoubleEntry visionAmbiguousEntry = telemetry.addDouble("vision/rejected ambiguous");
+  private final Telemetry.DoubleEntry visionTooFarEntry = telemetry.addDouble("vision/rejected too far");
+  private final Telemetry.DoubleEntry visionOffFieldEntry = telemetry.addDouble("vision/rejected off field");
+  private final Telemetry.DoubleEntry poseThetaEntry = telemetry.addDouble("robot pose theta", Tier.CRITICAL);
+  private final Telemetry.DoubleEntry velocityEntry = telemetry.addDouble("Swerve/velocity");
+  private final Telemetry.DoubleEntry angleToTargetEntry = telemetry.addDouble("/vision/angle to target",
+      Tier.CRITICAL);
+  private final Telemetry.StructArrayEntry<SwerveModuleState> swerveModuleStateEntry = telemetry
+      .addStructArray("Swerve/Current Modules States", SwerveModuleState.struct);
+  private final Telemetry.StructArrayEntry<SwerveModuleState> swerveModuleDesiredStateEntry = telemetry
+      .addStructArray("Swerve/Desired Modules States", SwerveModuleState.struct);
 
   /** Creates a new DriveSubsystem. */
   public DriveSubsystem(SwerveModule frontLeft, SwerveModule frontRight, SwerveModule rearLeft,
       SwerveModule rearRight, GyroIO gyro, VisionIO vision) {
-    this.visionIO = vision;
+    this.visionIO = new LoggedVisionIO(vision);
     this.gyroIO = gyro;
     this.frontLeft = frontLeft;
     this.frontRight = frontRight;
@@ -128,16 +184,26 @@ public class DriveSubsystem extends SubsystemBase {
 
     SmartDashboard.putData(field2d);
 
+    // the modules already read their sensors when they were constructed
+    gyroIO.updateInputs(gyroInputs);
+    loggedGyroInputs.update();
+
     poseEstimator = new SwerveDrivePoseEstimator(
         DriveConstants.kDriveKinematics,
-        Rotation2d.fromDegrees(gyro.getYaw()),
-        new SwerveModulePosition[] {
-            frontLeft.getPosition(),
-            frontRight.getPosition(),
-            rearLeft.getPosition(),
-            rearRight.getPosition() },
+        Rotation2d.fromRadians(gyroInputs.yawPositionRad),
+        getModulePositions(),
         new Pose2d(0, 0, new Rotation2d(0, 0))); // TODO: make these constants in the constants file rather than
                                                  // free-floating numbers
+    odometry = new SwerveDriveOdometry(
+        DriveConstants.kDriveKinematics,
+        Rotation2d.fromRadians(gyroInputs.yawPositionRad),
+        getModulePositions());
+
+    // module order has to match the kinematics: front left, front right, rear
+    // left, rear right
+    odometryThread = new OdometryThread(gyro, frontLeft, frontRight, rearLeft, rearRight);
+    odometrySample = new double[OdometryThread.getSampleWidth(odometryPositions.length)];
+    odometryThread.start();
 
     AutoBuilder.configureHolonomic(
         this::getPose,
@@ -170,73 +236,190 @@ public class DriveSubsystem extends SubsystemBase {
 
   @Override
   public void periodic() {
-    // This will get the simulated sensor readings that we set
-    // in the previous article while in simulation, but will use
-    // real values on the robot itself.
-    SmartDashboard.putNumber("left front distance (meters)", frontLeft.getDriveEncoderPosition());
-    SmartDashboard.putNumber("drive/gyro angle(degrees)", Math.toDegrees(gyroIO.getYaw()));
-    poseEstimator.updateWithTime(Timer.getFPGATimestamp(), Rotation2d.fromRadians(gyroIO.getYaw()),
-        new SwerveModulePosition[] {
-            frontLeft.getPosition(),
-            frontRight.getPosition(),
-            rearLeft.getPosition(),
-            rearRight.getPosition()
-        });
+    profile.start();
+    // Read every sensor once, before anything else this loop looks at them.
+    // Subsystems run before commands, so drive() sees the same snapshot.
+    updateInputs();
+
+    frontLeftDistanceEntry.set(frontLeft.getDriveEncoderPosition());
+    gyroAngleEntry.set(Math.toDegrees(gyroInputs.yawPositionRad));
+    // Only fall back to a single reading per loop if the odometry thread hasn't
+    // taken any samples since last time
+    if (!updateOdometryFromThread()) {
+      updateOdometry(Timer.getFPGATimestamp(), getOdometryYaw(gyroInputs.yawPositionRad), getModulePositions());
+    }
 
     Pose2d pose = getPose();
 
-    velocityXMPS = getRobotRelativeSpeeds().vxMetersPerSecond;
-    velocityYMPS = getRobotRelativeSpeeds().vyMetersPerSecond;
-    velocityMPS = Math.sqrt((Math.pow(velocityXMPS, 2) + Math.pow(velocityYMPS, 2)));
+    ChassisSpeeds robotSpeeds = getRobotRelativeSpeeds();
+    if (DriverStation.isDisabled()) {
+      // the robot can be pushed around while disabled, so start from wherever
+      // the wheels actually are once it's enabled
+      setpointGenerator.reset(moduleStates, robotSpeeds);
+      resetHeadingHold();
+    }
 
     robotPose = poseEstimator.getEstimatedPosition();
 
-    if (velocityMPS <= MAX_VISION_UPDATE_SPEED_MPS) {
-      possiblePose = visionIO.getVisionPose();
-      // makes sure that there is a new pose and that there are targets before getting
-      // a robot pose
-      if (possiblePose.isPresent()) {
-        visionEstimatedPose3d = possiblePose.get().estimatedPose;
+    // The estimator rewinds to when the frame was captured and replays the
+    // odometry since then, so vision can be fused at any driving speed
+    // every camera's new estimates, oldest first
+    // indexed, an iterator would allocate every loop
+    List<EstimatedRobotPose> visionPoses = visionIO.getVisionPoses();
+    for (int i = 0; i < visionPoses.size(); i++) {
+      EstimatedRobotPose visionPose = visionPoses.get(i);
+      // compare against where we were when the frame was captured, not now
+      VisionFilter.Result result = visionFilter.check(visionPose,
+          getPoseAtTime(visionPose.timestampSeconds), robotSpeeds);
+      if (result == VisionFilter.Result.ACCEPTED) {
+        visionEstimatedPose3d = visionPose.estimatedPose;
         visionEstimatedPose = visionEstimatedPose3d.toPose2d();
-        double distanceToTag = Math.hypot(visionEstimatedPose.getX(), visionEstimatedPose.getY());
-        poseEstimator.addVisionMeasurement(visionEstimatedPose, Timer.getFPGATimestamp(),
-            VecBuilder.fill(distanceToTag / 2, distanceToTag / 2, 100));
+        poseEstimator.addVisionMeasurement(visionEstimatedPose, visionPose.timestampSeconds,
+            visionFilter.getStdDevs());
       }
     }
+    visionAcceptedEntry.set(visionFilter.getCount(VisionFilter.Result.ACCEPTED));
+    visionOutlierEntry.set(visionFilter.getCount(VisionFilter.Result.OUTLIER));
+    visionAmbiguousEntry.set(visionFilter.getCount(VisionFilter.Result.AMBIGUOUS));
+    visionTooFarEntry.set(visionFilter.getCount(VisionFilter.Result.TOO_FAR));
+    visionOffFieldEntry.set(visionFilter.getCount(VisionFilter.Result.OFF_FIELD));
+
+    if (speakerPose != null) {
+      // the pose's heading, not the raw gyro, since only it is field relative
+      // after a reset or on red
+      virtualSpeakerPose = shotSolver.solve(robotPose, robotSpeeds, robotPose.getRotation().getRadians(),
+          speakerPose);
+      field2d.getObject("virtual speaker").setPose(virtualSpeakerPose);
+    }
 
-    SmartDashboard.putNumber("robot pose theta", pose.getRotation().getDegrees());
+    poseThetaEntry.set(pose.getRotation().getDegrees());
     field2d.setRobotPose(pose);
 
-    frontLeftField2dModule.setPose(pose.transformBy(new Transform2d(
-        Constants.DriveConstants.FRONT_LEFT_OFFSET,
-        new Rotation2d(frontLeft.getTurnEncoderPosition()))));
-
-    rearLeftField2dModule.setPose(pose.transformBy(new Transform2d(
-        Constants.DriveConstants.REAR_LEFT_OFFSET,
-        new Rotation2d(rearLeft.getTurnEncoderPosition()))));
-
-    frontRightField2dModule.setPose(pose.transformBy(new Transform2d(
-        Constants.DriveConstants.FRONT_RIGHT_OFFSET,
-        new Rotation2d(frontRight.getTurnEncoderPosition()))));
-
-    rearRightField2dModule.setPose(pose.transformBy(new Transform2d(
-        Constants.DriveConstants.REAR_RIGHT_OFFSET,
-        new Rotation2d(rearRight.getTurnEncoderPosition()))));
-
-    SwerveModuleState[] swerveModuleStates = new SwerveModuleState[] {
-        frontLeft.getState(),
-        frontRight.getState(),
-        rearLeft.getState(),
-        rearRight.getState(),
-    };
-    swerveModuleStatePublisher.set(swerveModuleStates);
-
-    if (Robot.isSimulation()) {
-      double angleChange = Constants.DriveConstants.kDriveKinematics
-          .toChassisSpeeds(swerveModuleStates).omegaRadiansPerSecond * (1 / Constants.CodeConstants.kMainLoopFrequency);
-      lastAngle = lastAngle.plus(Rotation2d.fromRadians(angleChange));
-      gyroIO.setYaw(lastAngle.getRadians());
+    // only for looking at on the dashboard, so skip building the poses on
+    // loops they wouldn't be sent
+    if (Telemetry.isDue(Tier.DIAGNOSTIC)) {
+      setModuleFieldPose(0, frontLeftField2dModule, pose, Constants.DriveConstants.FRONT_LEFT_OFFSET,
+          frontLeft.getTurnEncoderPosition());
+      setModuleFieldPose(1, rearLeftField2dModule, pose, Constants.DriveConstants.REAR_LEFT_OFFSET,
+          rearLeft.getTurnEncoderPosition());
+      setModuleFieldPose(2, frontRightField2dModule, pose, Constants.DriveConstants.FRONT_RIGHT_OFFSET,
+          frontRight.getTurnEncoderPosition());
+      setModuleFieldPose(3, rearRightField2dModule, pose, Constants.DriveConstants.REAR_RIGHT_OFFSET,
+          rearRight.getTurnEncoderPosition());
+    }
+
+    // getRobotRelativeSpeeds() above already refreshed the module states
+    swerveModuleStateEntry.set(moduleStates);
+    profile.stop();
+  }
+
+  /**
+   * Puts one module's marker on the field. Transform2d is immutable, so only
+   * make a new one when the module has turned.
+   */
+  private void setModuleFieldPose(int index, FieldObject2d marker, Pose2d pose, Translation2d offset,
+      double turnRadians) {
+    if (moduleFieldTransforms[index] == null || turnRadians != moduleFieldTurnRadians[index]) {
+      moduleFieldTurnRadians[index] = turnRadians;
+      moduleFieldTransforms[index] = new Transform2d(offset, new Rotation2d(turnRadians));
+    }
+    marker.setPose(pose.transformBy(moduleFieldTransforms[index]));
+  }
+
+  /** Takes this loop's snapshot of the gyro and every module's sensors. */
+  private void updateInputs() {
+    frontLeft.updateInputs();
+    frontRight.updateInputs();
+    rearLeft.updateInputs();
+    rearRight.updateInputs();
+    gyroIO.updateInputs(gyroInputs);
+    loggedGyroInputs.update();
+    odometryThread.updateInputs();
+  }
+
+  /** Refreshes and returns the reused array of module positions. */
+  private SwerveModulePosition[] getModulePositions() {
+    modulePositions[0] = frontLeft.getPosition();
+    modulePositions[1] = frontRight.getPosition();
+    modulePositions[2] = rearLeft.getPosition();
+    modulePositions[3] = rearRight.getPosition();
+    return modulePositions;
+  }
+
+  /** Refreshes and returns the reused array of measured module states. */
+  private SwerveModuleState[] getModuleStates() {
+    moduleStates[0] = frontLeft.getState();
+    moduleStates[1] = frontRight.getState();
+    moduleStates[2] = rearLeft.getState();
+    moduleStates[3] = rearRight.getState();
+    return moduleStates;
+  }
+
+  /** Sends the reused desired module states to the modules. */
+  private void setModuleStates(SwerveModuleState[] states) {
+    frontLeft.setDesiredState(states[0]);
+    frontRight.setDesiredState(states[1]);
+    rearLeft.setDesiredState(states[2]);
+    rearRight.setDesiredState(states[3]);
+    swerveModuleDesiredStateEntry.set(states);
+  }
+
+  /**
+   * Feeds every sample the odometry thread has taken since the last loop into
+   * the pose estimator, oldest first.
+   *
+   * @return false if there were no samples waiting.
+   */
+  private boolean updateOdometryFromThread() {
+    boolean updated = false;
+    int turnPositionsIndex = OdometryThread.getTurnPositionsIndex(odometryPositions.length);
+    while (odometryThread.poll(odometrySample)) {
+      // Rotation2d is immutable, so only make new ones for angles that changed
+      for (int i = 0; i < odometryPositions.length; i++) {
+        odometryPositions[i].distanceMeters = odometrySample[OdometryThread.DRIVE_POSITIONS + i];
+        double turnRadians = odometrySample[turnPositionsIndex + i];
+        if (turnRadians != odometryTurnRadians[i]) {
+          odometryTurnRadians[i] = turnRadians;
+          odometryPositions[i].angle = Rotation2d.fromRadians(turnRadians);
+        }
+      }
+      updateOdometry(odometrySample[OdometryThread.TIMESTAMP], getOdometryYaw(odometrySample[OdometryThread.YAW]),
+          odometryPositions);
+      updated = true;
     }
+    return updated;
+  }
+
+  /** Only makes a new Rotation2d when the yaw has changed since the last one. */
+  private Rotation2d getOdometryYaw(double yawRadians) {
+    if (yawRadians != odometryYawRadians) {
+      odometryYawRadians = yawRadians;
+      odometryYaw = Rotation2d.fromRadians(yawRadians);
+    }
+    return odometryYaw;
+  }
+
+  /** Feeds one odometry reading to the pose estimator and the pose history. */
+  private void updateOdometry(double timestamp, Rotation2d yaw, SwerveModulePosition[] positions) {
+    poseEstimator.updateWithTime(timestamp, yaw, positions);
+    odometryHistory.addSample(timestamp, odometry.update(yaw, positions));
+  }
+
+  /**
+   * Returns where the robot was at {@code timestampSeconds} (FPGA time), as
+   * best we know now.
+   *
+   * <p>
+   * The odometry recorded since then is replayed backwards from the current
+   * estimate, so vision corrections made after that time are included. Times
+   * older than the history fall back to the oldest sample.
+   */
+  public Pose2d getPoseAtTime(double timestampSeconds) {
+    Optional<Pose2d> pastOdometry = odometryHistory.getSample(timestampSeconds);
+    if (pastOdometry.isEmpty()) {
+      return getPose();
+    }
+    return getPose().transformBy(new Transform2d(odometry.getPoseMeters(), pastOdometry.get()));
   }
 
   /** Returns the currently-estimated pose of the robot. */
@@ -252,15 +435,17 @@ public class DriveSubsystem extends SubsystemBase {
 
   /** Resets the odometry to the specified pose. */
   public void resetOdometry(Pose2d pose) {
+    // samples taken before the reset would drag the pose back to where it was
+    odometryThread.clear();
     poseEstimator.resetPosition(
-        Rotation2d.fromRadians(gyroIO.getYaw()),
-        new SwerveModulePosition[] {
-            frontLeft.getPosition(),
-            frontRight.getPosition(),
-            rearLeft.getPosition(),
-            rearRight.getPosition()
-        },
+        Rotation2d.fromRadians(gyroInputs.yawPositionRad),
+        getModulePositions(),
         pose);
+    odometry.resetPosition(
+        Rotation2d.fromRadians(gyroInputs.yawPositionRad),
+        getModulePositions(),
+        pose);
+    odometryHistory.clear();
     // frontLeft.setDriveEncoderPosition(poseEstimator.getEstimatedPosition().);
   }
 
@@ -277,7 +462,7 @@ public class DriveSubsystem extends SubsystemBase {
       boolean alignToSpeakerWithVision) {
 
     double newRotRate = 0;
-    double currentAngle = (gyroIO.getYaw());
+    double currentAngle = gyroInputs.yawPositionRad;
     double r = Math.pow(Math.sqrt(Math.pow(xSpeed, 2) + Math.pow(ySpeed, 2)), 3);
     double polarAngle = Math.atan2(ySpeed, xSpeed);
     double polarXSpeed = r * Math.cos(polarAngle);
@@ -286,16 +471,15 @@ public class DriveSubsystem extends SubsystemBase {
     // //Account for edge case when gyro resets
     if (currentAngle == 0) {
       desiredAngle = 0;
+      headingController.reset(0, gyroInputs.yawVelocityRadPerSec);
     }
 
-    // Debouncer ensures that there is no back-correction immediately after turning
-    // Deadband for small movements - they are so slight they do not need correction
-    // and correction causes robot to spasm
-
-    if (alignToSpeakerWithVision) {
-      newRotRate = getAlignToSpeakerRotRate(currentAngle);
+    double targetHeading = getTargetHeading(alignToSpeakerWithVision ? HeadingTarget.SPEAKER : headingTarget);
+    if (!Double.isNaN(targetHeading)) {
+      newRotRate = getTargetHeadingRotRate(currentAngle, targetHeading);
     } else {
       newRotRate = getHeadingCorrectionRotRate(currentAngle, rotRate, polarXSpeed, polarYSpeed);
+      isAligned = false;
     }
 
     // Convert the commanded speeds into the correct units for the drivetrain
@@ -303,26 +487,19 @@ public class DriveSubsystem extends SubsystemBase {
     double ySpeedDelivered = polarYSpeed * DriveConstants.MAX_SPEED_METERS_PER_SECOND;
     double rotRateDelivered = newRotRate * DriveConstants.MAX_ANGULAR_SPEED;
 
+    relativeRobotSpeeds.vxMetersPerSecond = xSpeedDelivered;
+    relativeRobotSpeeds.vyMetersPerSecond = ySpeedDelivered;
+    relativeRobotSpeeds.omegaRadiansPerSecond = rotRateDelivered;
     if (fieldRelative) {
-      relativeRobotSpeeds = ChassisSpeeds.fromFieldRelativeSpeeds(xSpeedDelivered, ySpeedDelivered, rotRateDelivered,
-          Rotation2d.fromRadians(gyroIO.getYaw()));
-    } else {
-      relativeRobotSpeeds = new ChassisSpeeds(xSpeedDelivered, ySpeedDelivered, rotRateDelivered);
+      SwerveUtils.FromFieldRelativeSpeeds(relativeRobotSpeeds, currentAngle);
     }
 
-    SmartDashboard.putNumber("Swerve/velocity",
-        Math.sqrt(
-            Math.pow(relativeRobotSpeeds.vxMetersPerSecond, 2) + Math.pow(relativeRobotSpeeds.vyMetersPerSecond, 2)));
-
-    var swerveModuleStates = DriveConstants.kDriveKinematics.toSwerveModuleStates(relativeRobotSpeeds);
-    SwerveDriveKinematics.desaturateWheelSpeeds(
-        swerveModuleStates, DriveConstants.MAX_SPEED_METERS_PER_SECOND);
-    frontLeft.setDesiredState(swerveModuleStates[0]);
-    frontRight.setDesiredState(swerveModuleStates[1]);
-    rearLeft.setDesiredState(swerveModuleStates[2]);
-    rearRight.setDesiredState(swerveModuleStates[3]);
+    velocityEntry.set(
+        Math.hypot(relativeRobotSpeeds.vxMetersPerSecond, relativeRobotSpeeds.vyMetersPerSecond));
 
-    swerveModuleDesiredStatePublisher.set(swerveModuleStates);
+    setpointGenerator.generate(relativeRobotSpeeds, 1 / Constants.CodeConstants.kMainLoopFrequency,
+        desiredModuleStates);
+    setModuleStates(desiredModuleStates);
 
   }
 
@@ -330,27 +507,30 @@ public class DriveSubsystem extends SubsystemBase {
    * Sets the wheels into an X formation to prevent movement.
    */
   public void setX() {
-    frontLeft.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(45)));
-    frontRight.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(-45)));
-    rearLeft.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(-45)));
-    rearRight.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(45)));
+    setModuleStates(xModuleStates);
+    setpointGenerator.reset(xModuleStates, stoppedSpeeds);
+    resetHeadingHold();
   }
 
+  /**
+   * Returns the measured robot-relative speeds. The returned object is reused
+   * and overwritten on the next call.
+   */
   public ChassisSpeeds getRobotRelativeSpeeds() {
-    return DriveConstants.kDriveKinematics.toChassisSpeeds(frontLeft.getState(), frontRight.getState(),
-        rearLeft.getState(), rearRight.getState());
+    SwerveUtils.ToChassisSpeeds(getModuleStates(), DriveConstants.MODULE_OFFSETS, measuredRobotSpeeds);
+    return measuredRobotSpeeds;
   }
 
   public void setRobotRelativeSpeeds(ChassisSpeeds speeds) {
-    speeds = ChassisSpeeds.discretize(speeds, .02);
-    var swerveModuleStates = DriveConstants.kDriveKinematics.toSwerveModuleStates(speeds);
-    SwerveDriveKinematics.desaturateWheelSpeeds(
-        swerveModuleStates, DriveConstants.MAX_SPEED_METERS_PER_SECOND);
-    frontLeft.setDesiredState(swerveModuleStates[0]);
-    frontRight.setDesiredState(swerveModuleStates[1]);
-    rearLeft.setDesiredState(swerveModuleStates[2]);
-    rearRight.setDesiredState(swerveModuleStates[3]);
-    swerveModuleDesiredStatePublisher.set(swerveModuleStates);
+    // copy so we don't change the caller's speeds
+    relativeRobotSpeeds.vxMetersPerSecond = speeds.vxMetersPerSecond;
+    relativeRobotSpeeds.vyMetersPerSecond = speeds.vyMetersPerSecond;
+    relativeRobotSpeeds.omegaRadiansPerSecond = speeds.omegaRadiansPerSecond;
+    SwerveUtils.Discretize(relativeRobotSpeeds, .02);
+    setpointGenerator.generate(relativeRobotSpeeds, .02, desiredModuleStates);
+    setModuleStates(desiredModuleStates);
+    // PathPlanner is steering, so drive() should pick up from here afterwards
+    resetHeadingHold();
 
   }
 
@@ -377,46 +557,102 @@ public class DriveSubsystem extends SubsystemBase {
 
   // assigns aprilTags based on alliance
   public void setAprilTagIDsAndLocations(Optional<Alliance> ally) {
-    if (ally.get() == Alliance.Red) {
+    if (ally.isPresent() && ally.get() == Alliance.Red) {
       speakerID = 4;
       ampID = 5;
+      sourceID = 9;
     } else {
       speakerID = 7;
       ampID = 6;
+      sourceID = 1;
     }
     speakerPose = VisionConstants.KFIELDLAYOUT.getTagPose(speakerID).get().toPose2d();
+    ampPose = VisionConstants.KFIELDLAYOUT.getTagPose(ampID).get().toPose2d();
+    sourcePose = VisionConstants.KFIELDLAYOUT.getTagPose(sourceID).get().toPose2d();
+  }
+
+  /**
+   * Turns the robot to face {@code target} and holds it there whenever
+   * {@link #drive} is called. {@link HeadingTarget#NONE} goes back to normal
+   * driving.
+   */
+  public void setHeadingTarget(HeadingTarget target) {
+    headingTarget = target;
   }
 
   public Pose2d getSpeakerPose() {
     return speakerPose;
   }
 
-  private double getAlignToSpeakerRotRate(double currentAngle) {
-    poseDifference = robotPose.minus(speakerPose);
-    double angleToSpeaker = (PhotonUtils.getYawToPose(robotPose,
-        speakerPose).getRadians());
-    if (angleToSpeaker <= Units.degreesToRadians(ANGLE_TO_SPEAKER_TOLERANCE_DEGREES)) {
-      angleToSpeaker = 0;
+  /**
+   * Returns where to aim to hit the speaker from where the robot is, at the
+   * speed it's going. Null until the alliance is known.
+   */
+  public Pose2d getVirtualSpeakerPose() {
+    return virtualSpeakerPose;
+  }
+
+  /**
+   * Field-relative heading (radians) the robot should face for {@code target},
+   * or NaN if there isn't one.
+   */
+  private double getTargetHeading(HeadingTarget target) {
+    switch (target) {
+      case SPEAKER:
+        if (virtualSpeakerPose == null) {
+          return Double.NaN;
+        }
+        // point the front of the robot at where the shot needs to go
+        return Math.atan2(virtualSpeakerPose.getY() - robotPose.getY(),
+            virtualSpeakerPose.getX() - robotPose.getX());
+      case AMP:
+        // the tags face out into the field, so face back into them
+        return ampPose == null ? Double.NaN : ampPose.getRotation().getRadians() + Math.PI;
+      case SOURCE:
+        return sourcePose == null ? Double.NaN : sourcePose.getRotation().getRadians() + Math.PI;
+      default:
+        return Double.NaN;
     }
-    SmartDashboard.putNumber("/vision/rotRate",
-        keepPointedController.calculate(angleToSpeaker, 0));
-    // SmartDashboard.putNumber("/vision/angle pose diff",
-    // poseDifference.getRotation().getRadians());
-    SmartDashboard.putNumber("/vision/angle to speaker", angleToSpeaker);
-    desiredAngle = currentAngle;
-    return keepPointedController.calculate(angleToSpeaker, 0);
+  }
+
+  private double getTargetHeadingRotRate(double currentAngle, double targetHeading) {
+    // the target is field relative, so turn it into a gyro angle using the
+    // estimated pose's heading
+    double goal = currentAngle + MathUtil.angleModulus(targetHeading - robotPose.getRotation().getRadians());
+    double rotRate = headingController.calculate(currentAngle, gyroInputs.yawVelocityRadPerSec, goal,
+        1 / Constants.CodeConstants.kMainLoopFrequency);
+    // keep holding the target heading once the driver lets go
+    desiredAngle = goal;
+    isAligned = headingController.atGoal();
+    angleToTargetEntry.set(Math.toDegrees(MathUtil.angleModulus(goal - currentAngle)));
+    return MathUtil.clamp(rotRate / DriveConstants.MAX_ANGULAR_SPEED, -1, 1);
   }
 
   private double getHeadingCorrectionRotRate(double currentAngle, double rotRate, double polarXSpeed,
       double polarYSpeed) {
-    double newRotRate = 0;
-    if (rotationDebouncer.calculate(rotRate == 0)
-        && (Math.abs(polarXSpeed) >= 0.075 || Math.abs(polarYSpeed) != 0.075)) {
-      newRotRate = newRotRate + drivePIDController.calculate(currentAngle, desiredAngle);
-    } else {
-      newRotRate = rotRate;
-      desiredAngle = currentAngle;
+    double rate = gyroInputs.yawVelocityRadPerSec;
+    if (rotRate != 0) {
+      // The driver is turning. Once they let go, hold wherever the robot can
+      // stop without swinging back
+      desiredAngle = HeadingController.getStoppingHeading(currentAngle, rate,
+          DriveConstants.HEADING_MAX_ACCELERATION);
+      headingController.reset(currentAngle, rate);
+      return rotRate;
+    }
+    // Deadband for small movements - they are so slight they do not need
+    // correction and correction causes robot to spasm
+    if (Math.abs(polarXSpeed) < 0.075 && Math.abs(polarYSpeed) < 0.075) {
+      resetHeadingHold();
+      return 0;
     }
-    return newRotRate;
+    double newRotRate = headingController.calculate(currentAngle, rate, desiredAngle,
+        1 / Constants.CodeConstants.kMainLoopFrequency);
+    return MathUtil.clamp(newRotRate / DriveConstants.MAX_ANGULAR_SPEED, -1, 1);
+  }
+
+  /** Holds whatever heading the robot is at now, starting from how it's turning. */
+  private void resetHeadingHold() {
+    desiredAngle = gyroInputs.yawPositionRad;
+    headingController.reset(gyroInputs.yawPositionRad, gyroInputs.yawVelocityRadPerSec);
   }
 }
\ No newline at end of file
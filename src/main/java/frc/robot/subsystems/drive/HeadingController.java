@@ -0,0 +1,135 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * Turns the robot to a heading along a trapezoid profile, so it gets there as
+ * fast as the acceleration limit allows without overshooting.
+ *
+ * <p>
+ * The profile's velocity is used as a feedforward. On top of that, position
+ * error is corrected with P and the gyro's measured rate with D against the
+ * profile's velocity, so the robot follows the profile instead of lagging it.
+ *
+ * <p>
+ * The profile is the same one WPILib's TrapezoidProfile follows, worked out on
+ * primitives, since TrapezoidProfile makes new States every call and this runs
+ * every loop.
+ */
+public class HeadingController {
+
+  private final double maxVelocity;
+  private final double maxAcceleration;
+  private final double p;
+  private final double d;
+  private final double tolerance;
+
+  private double setpointPosition = 0;
+  private double setpointVelocity = 0;
+  private double error = 0;
+
+  /**
+   * @param maxVelocity     Fastest the robot may turn (radians per second).
+   * @param maxAcceleration Fastest the turn rate may change (radians per
+   *                        second squared).
+   * @param p               Radians per second of correction per radian of error.
+   * @param d               Radians per second of correction per radian per
+   *                        second of rate error.
+   * @param tolerance       How close counts as at the goal (radians).
+   */
+  public HeadingController(double maxVelocity, double maxAcceleration, double p, double d, double tolerance) {
+    this.maxVelocity = maxVelocity;
+    this.maxAcceleration = maxAcceleration;
+    this.p = p;
+    this.d = d;
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * Starts the profile from how the robot is moving now. Call whenever
+   * something else has been turning the robot.
+   */
+  public void reset(double heading, double rate) {
+    setpointPosition = heading;
+    setpointVelocity = rate;
+    error = 0;
+  }
+
+  /**
+   * @param heading     Current heading (radians).
+   * @param rate        Current turn rate from the gyro (radians per second).
+   * @param goalHeading Heading to turn to (radians). Any multiple of 2*PI away
+   *                    is the same goal; the shorter way around is taken.
+   * @param dtSeconds   Time until the next call.
+   * @return The turn rate to command (radians per second).
+   */
+  public double calculate(double heading, double rate, double goalHeading, double dtSeconds) {
+    // the setpoint is continuous, so keep the goal within half a turn of it
+    double goal = setpointPosition + MathUtil.angleModulus(goalHeading - setpointPosition);
+    stepProfile(dtSeconds, goal);
+
+    error = MathUtil.angleModulus(goal - heading);
+    return setpointVelocity
+        + p * MathUtil.angleModulus(setpointPosition - heading)
+        + d * (setpointVelocity - rate);
+  }
+
+  /**
+   * Moves the setpoint {@code dtSeconds} along the profile to {@code goal},
+   * coming to a stop there. Same as TrapezoidProfile.calculate with a goal
+   * velocity of 0.
+   */
+  private void stepProfile(double dtSeconds, double goal) {
+    // worked out as if the goal is ahead, and flipped back at the end
+    double direction = setpointPosition > goal ? -1 : 1;
+    double position = setpointPosition * direction;
+    double velocity = Math.min(setpointVelocity * direction, maxVelocity);
+    goal *= direction;
+
+    // the profile starts part way up the acceleration ramp, at the current
+    // velocity
+    double cutoffBegin = velocity / maxAcceleration;
+    double fullTrapezoidDistance = cutoffBegin * cutoffBegin * maxAcceleration / 2 + (goal - position);
+    double accelerationTime = maxVelocity / maxAcceleration;
+    double fullSpeedDistance = fullTrapezoidDistance - accelerationTime * accelerationTime * maxAcceleration;
+    if (fullSpeedDistance < 0) {
+      // too close to reach full speed, so it's a triangle
+      accelerationTime = Math.sqrt(fullTrapezoidDistance / maxAcceleration);
+      fullSpeedDistance = 0;
+    }
+    double endAcceleration = accelerationTime - cutoffBegin;
+    double endFullSpeed = endAcceleration + fullSpeedDistance / maxVelocity;
+    double endDeceleration = endFullSpeed + accelerationTime;
+
+    if (dtSeconds < endAcceleration) {
+      position += (velocity + dtSeconds * maxAcceleration / 2) * dtSeconds;
+      velocity += dtSeconds * maxAcceleration;
+    } else if (dtSeconds < endFullSpeed) {
+      position += (velocity + endAcceleration * maxAcceleration / 2) * endAcceleration
+          + maxVelocity * (dtSeconds - endAcceleration);
+      velocity = maxVelocity;
+    } else if (dtSeconds <= endDeceleration) {
+      double timeLeft = endDeceleration - dtSeconds;
+      velocity = timeLeft * maxAcceleration;
+      position = goal - timeLeft * maxAcceleration / 2 * timeLeft;
+    } else {
+      position = goal;
+      velocity = 0;
+    }
+    setpointPosition = position * direction;
+    setpointVelocity = velocity * direction;
+  }
+
+  /** Whether the robot was within tolerance of the goal at the last call. */
+  public boolean atGoal() {
+    return Math.abs(error) <= tolerance;
+  }
+
+  /**
+   * Where a robot turning at {@code rate} would come to a stop if it slowed
+   * down as hard as the profile allows.
+   */
+  public static double getStoppingHeading(double heading, double rate, double maxAcceleration) {
+    return heading + rate * Math.abs(rate) / (2 * maxAcceleration);
+  }
+}
@@ -0,0 +1,152 @@
+package frc.robot.subsystems.drive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import org.photonvision.targeting.TargetCorner;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Quaternion;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import frc.utils.InputsLog;
+import frc.utils.LoggedInputs;
+
+/**
+ * Logs every estimate another VisionIO returns, and in replay returns the
+ * logged estimates instead.
+ *
+ * <p>
+ * Estimates are flattened into one double[] per loop. Each starts with
+ * {@code [timestamp, pose x, y, z, qw, qx, qy, qz, strategy, target count]},
+ * followed by {@link #TARGET_WIDTH} values per target. Only the parts of a
+ * target {@link VisionFilter} and the pose estimator use are kept, so replayed
+ * targets have no corners.
+ */
+public class LoggedVisionIO implements VisionIO {
+
+  public static class VisionIOInputs {
+    public double[] frames = new double[0];
+  }
+
+  private static final int FRAME_HEADER_WIDTH = 10;
+  private static final int TARGET_WIDTH = 20;
+  private static final PoseStrategy[] STRATEGIES = PoseStrategy.values();
+  private static final List<TargetCorner> NO_CORNERS = List.of(new TargetCorner(0, 0), new TargetCorner(0, 0),
+      new TargetCorner(0, 0), new TargetCorner(0, 0));
+
+  private final VisionIO io;
+  private final VisionIOInputs inputs = new VisionIOInputs();
+  private final LoggedInputs loggedInputs = new LoggedInputs("Vision", inputs);
+  private final List<EstimatedRobotPose> poses = new ArrayList<>();
+  // the logged array has to be exactly as long as the frames in it, so keep one
+  // for each length instead of making one every loop
+  private double[][] framesByLength = new double[64][];
+
+  public LoggedVisionIO(VisionIO io) {
+    this.io = io;
+  }
+
+  public List<EstimatedRobotPose> getVisionPoses() {
+    if (InputsLog.isReplay()) {
+      loggedInputs.update();
+      decode(inputs.frames, poses);
+      return poses;
+    }
+    List<EstimatedRobotPose> estimates = io.getVisionPoses();
+    if (InputsLog.isLogging()) {
+      inputs.frames = encode(estimates);
+      loggedInputs.update();
+    }
+    return estimates;
+  }
+
+  private double[] encode(List<EstimatedRobotPose> estimates) {
+    int length = 0;
+    for (int i = 0; i < estimates.size(); i++) {
+      length += FRAME_HEADER_WIDTH + TARGET_WIDTH * estimates.get(i).targetsUsed.size();
+    }
+    if (length >= framesByLength.length) {
+      framesByLength = Arrays.copyOf(framesByLength, Math.max(length + 1, framesByLength.length * 2));
+    }
+    if (framesByLength[length] == null) {
+      framesByLength[length] = new double[length];
+    }
+    double[] frames = framesByLength[length];
+    int index = 0;
+    for (int i = 0; i < estimates.size(); i++) {
+      EstimatedRobotPose estimate = estimates.get(i);
+      frames[index++] = estimate.timestampSeconds;
+      index = writeTransform(frames, index, estimate.estimatedPose.getTranslation(),
+          estimate.estimatedPose.getRotation());
+      frames[index++] = estimate.strategy.ordinal();
+      frames[index++] = estimate.targetsUsed.size();
+      for (PhotonTrackedTarget target : estimate.targetsUsed) {
+        frames[index++] = target.getFiducialId();
+        frames[index++] = target.getYaw();
+        frames[index++] = target.getPitch();
+        frames[index++] = target.getArea();
+        frames[index++] = target.getSkew();
+        frames[index++] = target.getPoseAmbiguity();
+        Transform3d best = target.getBestCameraToTarget();
+        index = writeTransform(frames, index, best.getTranslation(), best.getRotation());
+        Transform3d alternate = target.getAlternateCameraToTarget();
+        index = writeTransform(frames, index, alternate.getTranslation(), alternate.getRotation());
+      }
+    }
+    return frames;
+  }
+
+  private static void decode(double[] frames, List<EstimatedRobotPose> out) {
+    out.clear();
+    int index = 0;
+    while (index < frames.length) {
+      double timestamp = frames[index++];
+      Pose3d pose = new Pose3d(readTranslation(frames, index), readRotation(frames, index + 3));
+      index += 7;
+      PoseStrategy strategy = STRATEGIES[(int) frames[index++]];
+      int targetCount = (int) frames[index++];
+      List<PhotonTrackedTarget> targets = new ArrayList<>(targetCount);
+      for (int i = 0; i < targetCount; i++) {
+        int id = (int) frames[index];
+        double yaw = frames[index + 1];
+        double pitch = frames[index + 2];
+        double area = frames[index + 3];
+        double skew = frames[index + 4];
+        double ambiguity = frames[index + 5];
+        Transform3d best = new Transform3d(readTranslation(frames, index + 6), readRotation(frames, index + 9));
+        Transform3d alternate = new Transform3d(readTranslation(frames, index + 13),
+            readRotation(frames, index + 16));
+        targets.add(new PhotonTrackedTarget(yaw, pitch, area, skew, id, best, alternate, ambiguity, NO_CORNERS,
+            NO_CORNERS));
+        index += TARGET_WIDTH;
+      }
+      out.add(new EstimatedRobotPose(pose, timestamp, targets, strategy));
+    }
+  }
+
+  private static int writeTransform(double[] out, int index, Translation3d translation, Rotation3d rotation) {
+    Quaternion q = rotation.getQuaternion();
+    out[index++] = translation.getX();
+    out[index++] = translation.getY();
+    out[index++] = translation.getZ();
+    out[index++] = q.getW();
+    out[index++] = q.getX();
+    out[index++] = q.getY();
+    out[index++] = q.getZ();
+    return index;
+  }
+
+  private static Translation3d readTranslation(double[] frames, int index) {
+    return new Translation3d(frames[index], frames[index + 1], frames[index + 2]);
+  }
+
+  private static Rotation3d readRotation(double[] frames, int index) {
+    return new Rotation3d(new Quaternion(frames[index], frames[index + 1], frames[index + 2], frames[index + 3]));
+  }
+}
@@ -0,0 +1,64 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Finds where to aim so a note shot while driving still goes in.
+ *
+ * <p>
+ * The note keeps the robot's velocity when it leaves the shooter, so instead
+ * of aiming at the speaker we aim at a virtual target offset against our
+ * velocity by however far we'd drift during the note's flight. The flight
+ * time depends on the distance to that virtual target, so the two are
+ * iterated until they agree.
+ */
+public class MovingShotSolver {
+
+  private static final int MAX_ITERATIONS = 10;
+  private static final double TOLERANCE_METERS = 0.01;
+
+  private final double noteVelocity;
+
+  /**
+   * @param noteVelocity Horizontal speed of the note once it leaves the
+   *                     shooter, in meters per second.
+   */
+  public MovingShotSolver(double noteVelocity) {
+    this.noteVelocity = noteVelocity;
+  }
+
+  /**
+   * @param robotPose   Where the robot is on the field.
+   * @param robotSpeeds The robot's measured robot-relative speeds.
+   * @param heading     The robot's heading in radians, to make the speeds
+   *                    field relative.
+   * @param target      What we want to hit.
+   * @return The pose to aim the drivetrain and arm at instead of
+   *         {@code target}. The same as {@code target} when standing still.
+   */
+  public Pose2d solve(Pose2d robotPose, ChassisSpeeds robotSpeeds, double heading, Pose2d target) {
+    double cos = Math.cos(heading);
+    double sin = Math.sin(heading);
+    double fieldVx = robotSpeeds.vxMetersPerSecond * cos - robotSpeeds.vyMetersPerSecond * sin;
+    double fieldVy = robotSpeeds.vxMetersPerSecond * sin + robotSpeeds.vyMetersPerSecond * cos;
+    if (Math.hypot(fieldVx, fieldVy) < 1E-3) {
+      return target;
+    }
+
+    double virtualX = target.getX();
+    double virtualY = target.getY();
+    for (int i = 0; i < MAX_ITERATIONS; i++) {
+      double timeOfFlight = Math.hypot(virtualX - robotPose.getX(), virtualY - robotPose.getY()) / noteVelocity;
+      double nextX = target.getX() - fieldVx * timeOfFlight;
+      double nextY = target.getY() - fieldVy * timeOfFlight;
+      boolean converged = Math.hypot(nextX - virtualX, nextY - virtualY) < TOLERANCE_METERS;
+      virtualX = nextX;
+      virtualY = nextY;
+      if (converged) {
+        break;
+      }
+    }
+    return new Pose2d(virtualX, virtualY, target.getRotation());
+  }
+}
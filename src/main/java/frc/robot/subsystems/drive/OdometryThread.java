@@ -0,0 +1,150 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.CodeConstants;
+import frc.robot.subsystems.gyro.GyroIO;
+import frc.utils.InputsLog;
+import frc.utils.LoggedInputs;
+import frc.utils.SampleRingBuffer;
+
+/**
+ * Samples the gyro and every swerve module's encoders faster than the main
+ * loop so the pose estimator sees the path the robot actually drove instead of
+ * one point every 20 ms.
+ *
+ * <p>
+ * Each sample is laid out as {@code [timestamp, yaw, drive positions...,
+ * turn positions...]}, with the turn positions already relative to the
+ * chassis.
+ *
+ * <p>
+ * The main loop takes every sample waiting with {@link #updateInputs()} once
+ * per loop and then reads them one at a time with {@link #poll(double[])}.
+ * The samples taken each loop are logged back to back, and in replay they're
+ * read from the log and the thread never runs.
+ */
+public class OdometryThread {
+
+    public static class OdometryInputs {
+        public double[] samples = new double[0];
+    }
+
+    public static final int TIMESTAMP = 0;
+    public static final int YAW = 1;
+    public static final int DRIVE_POSITIONS = 2;
+
+    // roughly 1/4 second of samples, so a slow loop doesn't lose any
+    private static final int BUFFER_CAPACITY = 64;
+
+    private final SwerveModule[] modules;
+    private final GyroIO gyro;
+    private final SampleRingBuffer buffer;
+    private final Notifier notifier;
+
+    // only touched by the notifier thread
+    private final double[] sample;
+
+    // the samples taken since last loop, only touched by the main loop
+    private final OdometryInputs inputs = new OdometryInputs();
+    private final LoggedInputs loggedInputs = new LoggedInputs("Odometry", inputs);
+    private final double[] readSample;
+    private double[] samples;
+    // the logged array has to be exactly as long as the samples in it, so keep
+    // one for each count instead of making one every loop
+    private final double[][] logArrays = new double[BUFFER_CAPACITY + 1][];
+    private int sampleCount = 0;
+    private int nextSample = 0;
+
+    public OdometryThread(GyroIO gyro, SwerveModule... modules) {
+        this.gyro = gyro;
+        this.modules = modules;
+        buffer = new SampleRingBuffer(BUFFER_CAPACITY, getSampleWidth(modules.length));
+        sample = new double[buffer.getWidth()];
+        readSample = new double[buffer.getWidth()];
+        samples = new double[BUFFER_CAPACITY * buffer.getWidth()];
+        notifier = new Notifier(this::sample);
+        notifier.setName("Odometry");
+    }
+
+    public void start() {
+        if (InputsLog.isReplay()) {
+            return;
+        }
+        notifier.startPeriodic(1.0 / CodeConstants.kOdometryFrequency);
+    }
+
+    public void stop() {
+        notifier.stop();
+    }
+
+    private void sample() {
+        sample[TIMESTAMP] = Timer.getFPGATimestamp();
+        sample[YAW] = gyro.getYaw();
+        for (int i = 0; i < modules.length; i++) {
+            SwerveModuleIO io = modules[i].io;
+            sample[DRIVE_POSITIONS + i] = io.getDriveEncoderPosition();
+            sample[getTurnPositionsIndex(modules.length) + i] = io.getTurnEncoderPosition()
+                    - io.getChassisAngularOffset();
+        }
+        buffer.write(sample);
+    }
+
+    /**
+     * Takes every sample from the thread that hasn't been read yet, or this
+     * loop's samples from the log in replay. Call once per loop, before
+     * {@link #poll(double[])}.
+     */
+    public void updateInputs() {
+        int width = buffer.getWidth();
+        nextSample = 0;
+        if (InputsLog.isReplay()) {
+            loggedInputs.update();
+            samples = inputs.samples;
+            sampleCount = samples.length / width;
+            return;
+        }
+        sampleCount = 0;
+        while (sampleCount < BUFFER_CAPACITY && buffer.read(readSample)) {
+            System.arraycopy(readSample, 0, samples, sampleCount * width, width);
+            sampleCount++;
+        }
+        if (InputsLog.isLogging()) {
+            if (logArrays[sampleCount] == null) {
+                logArrays[sampleCount] = new double[sampleCount * width];
+            }
+            inputs.samples = logArrays[sampleCount];
+            System.arraycopy(samples, 0, inputs.samples, 0, inputs.samples.length);
+            loggedInputs.update();
+        }
+    }
+
+    /**
+     * Copies the oldest sample taken by {@link #updateInputs()} that hasn't
+     * been read yet into {@code out}. Call from the main loop only.
+     *
+     * @return false once every sample has been read.
+     */
+    public boolean poll(double[] out) {
+        if (nextSample >= sampleCount) {
+            return false;
+        }
+        System.arraycopy(samples, nextSample * buffer.getWidth(), out, 0, buffer.getWidth());
+        nextSample++;
+        return true;
+    }
+
+    /** Throws away unread samples, e.g. after the odometry has been reset. */
+    public void clear() {
+        buffer.clear();
+        nextSample = sampleCount;
+    }
+
+    public static int getSampleWidth(int moduleCount) {
+        return DRIVE_POSITIONS + 2 * moduleCount;
+    }
+
+    public static int getTurnPositionsIndex(int moduleCount) {
+        return DRIVE_POSITIONS + moduleCount;
+    }
+}
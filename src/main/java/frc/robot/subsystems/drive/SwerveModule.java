@@ -1,10 +1,12 @@
 package frc.robot.subsystems.drive;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import frc.robot.subsystems.drive.SwerveModuleIO.SwerveModuleIOInputs;
+import frc.utils.LoggedInputs;
 
 public class SwerveModule {
 
@@ -15,6 +17,14 @@ public class SwerveModule {
     SwerveModuleIO io;
 
     private final SwerveModuleIOInputs inputs = new SwerveModuleIOInputs();
+    private final LoggedInputs loggedInputs;
+
+    // getState() and getPosition() update and return these instead of allocating
+    // new objects every loop
+    private final SwerveModuleState m_state = new SwerveModuleState();
+    private final SwerveModulePosition m_position = new SwerveModulePosition();
+    private Rotation2d m_chassisAngle = new Rotation2d();
+    private double m_chassisAngleRadians = 0.0;
 
     //name is used for smart dashboard values to distinguish between modules
     private String name;
@@ -23,7 +33,9 @@ public class SwerveModule {
 
         this.io = io;
         this.name = io.getName();
+        loggedInputs = new LoggedInputs("Drive/" + name, inputs);
         io.setDriveEncoderPosition(0);
+        updateInputs();
         m_desiredState.angle = new Rotation2d(getTurnEncoderPosition());
 
     }
@@ -33,15 +45,15 @@ public class SwerveModule {
     }
 
     public double getDriveEncoderPosition() {
-        return io.getDriveEncoderPosition();
+        return inputs.drivePositionMeters;
     }
 
     public double getDriveEncoderSpeedMPS() {
-        return io.getDriveEncoderSpeedMPS();
+        return inputs.driveVelocityMPS;
     }
 
     public double getTurnEncoderPosition() {
-        return io.getTurnEncoderPosition();
+        return inputs.turnPositionRad;
     }
 
     public void resetEncoders() {
@@ -49,19 +61,24 @@ public class SwerveModule {
     }
 
     public double getDriveBusVoltage() {
-        return io.getDriveBusVoltage();
+        return inputs.driveBusVoltage;
     }
 
     public double getDriveOutput() {
-        return io.getDriveOutput();
+        return inputs.driveAppliedOutput;
     }
 
     public double getTurnBusVoltage() {
-        return io.getTurnBusVoltage();
+        return inputs.turnBusVoltage;
     }
 
+    /**
+     * Reads the module's sensors. Call once per loop before anything else uses
+     * the module; every getter returns the values read here.
+     */
     public void updateInputs() {
         io.updateInputs(inputs);
+        loggedInputs.update();
     }
 
     /**
@@ -70,10 +87,9 @@ public class SwerveModule {
      * @return The current state of the module.
      */
     public SwerveModuleState getState() {
-        // Apply chassis angular offset to the encoder position to get the position
-        // relative to the chassis.
-        return new SwerveModuleState(getDriveEncoderSpeedMPS(),
-                new Rotation2d((getTurnEncoderPosition()) - io.getChassisAngularOffset()));
+        m_state.speedMetersPerSecond = getDriveEncoderSpeedMPS();
+        m_state.angle = getChassisAngle();
+        return m_state;
     }
 
     /**
@@ -82,11 +98,21 @@ public class SwerveModule {
      * @return The current position of the module.
      */
     public SwerveModulePosition getPosition() {
+        m_position.distanceMeters = getDriveEncoderPosition();
+        m_position.angle = getChassisAngle();
+        return m_position;
+    }
+
+    private Rotation2d getChassisAngle() {
         // Apply chassis angular offset to the encoder position to get the position
-        // relative to the chassis.
-        return new SwerveModulePosition(
-                getDriveEncoderPosition(),
-                new Rotation2d(getTurnEncoderPosition() - io.getChassisAngularOffset()));
+        // relative to the chassis. Rotation2d is immutable, so only make a new one
+        // when the angle has actually changed.
+        double chassisAngleRadians = getTurnEncoderPosition() - io.getChassisAngularOffset();
+        if (chassisAngleRadians != m_chassisAngleRadians) {
+            m_chassisAngleRadians = chassisAngleRadians;
+            m_chassisAngle = new Rotation2d(chassisAngleRadians);
+        }
+        return m_chassisAngle;
     }
 
     /**
@@ -96,18 +122,19 @@ public class SwerveModule {
      */
     public void setDesiredState(SwerveModuleState desiredState) {
         // Apply chassis angular offset to the desired state.
-        SwerveModuleState correctedDesiredState = new SwerveModuleState();
-        correctedDesiredState.speedMetersPerSecond = desiredState.speedMetersPerSecond;
-        correctedDesiredState.angle = desiredState.angle.plus(Rotation2d.fromRadians(io.getChassisAngularOffset()));
+        double desiredSpeed = desiredState.speedMetersPerSecond;
+        double desiredAngle = desiredState.angle.getRadians() + io.getChassisAngularOffset();
 
         // Optimize the reference state to avoid spinning further than 90 degrees.
-
-        SwerveModuleState optimizedDesiredState =
-        SwerveModuleState.optimize(correctedDesiredState,
-        new Rotation2d(getTurnEncoderPosition()));
-        io.setDesiredDriveSpeedMPS(optimizedDesiredState.speedMetersPerSecond);
-        io.setDesiredTurnAngle(optimizedDesiredState.angle.getRadians());
-        m_desiredState = desiredState;
+        // Same as SwerveModuleState.optimize(), but without allocating.
+        if (Math.abs(MathUtil.angleModulus(desiredAngle - getTurnEncoderPosition())) > Math.PI / 2) {
+            desiredSpeed = -desiredSpeed;
+            desiredAngle += Math.PI;
+        }
+        io.setDesiredDriveSpeedMPS(desiredSpeed);
+        io.setDesiredTurnAngle(MathUtil.angleModulus(desiredAngle));
+        m_desiredState.speedMetersPerSecond = desiredState.speedMetersPerSecond;
+        m_desiredState.angle = desiredState.angle;
     }
 
 }
\ No newline at end of file
@@ -7,14 +7,20 @@ public interface SwerveModuleIO {
     public static class SwerveModuleIOInputs {
         public double drivePositionMeters = 0.0;
         public double driveVelocityMPS = 0.0;
+        public double driveAppliedOutput = 0.0;
         public double driveAppliedVolts = 0.0;
         public double driveBusVoltage = 0.0;
     
         public double turnPositionRad = 0.0;
+        public double turnAppliedOutput = 0.0;
         public double turnAppliedVolts = 0.0;
         public double turnBusVoltage = 0.0; 
     }
 
+    /**
+     * Reads every sensor value exactly once. Called once per loop; everything
+     * else in the loop reads from the inputs instead of the hardware.
+     */
     public void updateInputs(SwerveModuleIOInputs inputs);
     
     public void setDriveEncoderPosition(double position);
@@ -14,11 +14,14 @@ import com.revrobotics.SparkPIDController;
 
 import frc.robot.Constants;
 import frc.robot.Constants.SwerveModuleConstants;
+import frc.utils.CachedSparkMax;
 import frc.utils.MotorUtil;
+import frc.utils.MotorUtil.StatusFrames;
+import frc.utils.SparkConfig;
 
 public class SwerveModuleIO_Real implements SwerveModuleIO {
-   private final CANSparkMax m_drivingSparkMax;
-   private final CANSparkMax m_turningSparkMax;
+   private final CachedSparkMax m_drivingSparkMax;
+   private final CachedSparkMax m_turningSparkMax;
 
    private final RelativeEncoder m_drivingEncoder;
    private final AbsoluteEncoder m_turningEncoder;
@@ -33,17 +36,12 @@ public class SwerveModuleIO_Real implements SwerveModuleIO {
    public SwerveModuleIO_Real(int drivingCANId, int turningCANId, double chassisAngularOffset,
          String name) {
 
-      int errors = 0;
-
       this.name = name;
 
-      m_drivingSparkMax = MotorUtil.createSparkMAX(drivingCANId, MotorType.kBrushless,
-            Constants.NEO_CURRENT_LIMIT, SwerveModuleConstants.kDrivingEncoderInverted, true, 0);
-      m_turningSparkMax = MotorUtil.createSparkMAX(turningCANId, MotorType.kBrushless,
-            Constants.NEO550_CURRENT_LIMIT, true, 0);
-
-      errors += check(m_drivingSparkMax.enableVoltageCompensation(12));
-      errors += check(m_turningSparkMax.enableVoltageCompensation(12));
+      m_drivingSparkMax = MotorUtil.createSparkMAX(drivingCANId, MotorType.kBrushless, drivingConfig(),
+            StatusFrames.SWERVE_DRIVE);
+      m_turningSparkMax = MotorUtil.createSparkMAX(turningCANId, MotorType.kBrushless, turningConfig(),
+            StatusFrames.SWERVE_TURN);
 
       // Setup encoders and PID controllers for the driving and turning SPARKS MAX.
       m_drivingEncoder = m_drivingSparkMax.getEncoder();
@@ -51,80 +49,83 @@ public class SwerveModuleIO_Real implements SwerveModuleIO {
       m_drivingPIDController = m_drivingSparkMax.getPIDController();
       m_turningPIDController = m_turningSparkMax.getPIDController();
 
-      errors += check(m_drivingPIDController.setFeedbackDevice(m_drivingEncoder));
-      errors += check(m_turningPIDController.setFeedbackDevice(m_turningEncoder));
-
-      // Apply position and velocity conversion factors for the driving encoder. The
-      // native units for position and velocity are rotations and RPM, respectively,
-      // but we want meters and meters per second to use with WPILib's swerve APIs.
-
-      errors += check(
-            m_drivingEncoder
-                  .setPositionConversionFactor(SwerveModuleConstants.kDrivingEncoderPositionFactor));
-      errors += check(
-            m_drivingEncoder.setVelocityConversionFactor(
-                  (SwerveModuleConstants.kDrivingEncoderVelocityFactor)));
-
-      // Apply position and velocity conversion factors for the turning encoder. We
-      // want these in radians and radians per second to use with WPILib's swerve
-      // APIs.
-      errors += check(
-            m_turningEncoder.setPositionConversionFactor(SwerveModuleConstants.kTurningEncoderPositionFactor));
-      errors += check(
-            m_turningEncoder.setVelocityConversionFactor(SwerveModuleConstants.kTurningEncoderVelocityFactor));
-
-      // Invert the turning encoder, since the output shaft rotates in the opposite
-      // direction of
-      // the steering motor in the MAXSwerve Module.
-
-      errors += check(m_turningEncoder.setInverted(SwerveModuleConstants.kTurningEncoderInverted));
-      m_drivingSparkMax.setInverted(SwerveModuleConstants.kDrivingEncoderInverted);
-
-      // Enable PID wrap around for the turning motor. This will allow the PID
-      // controller to go through 0 to get to the setpoint i.e. going from 350 degrees
-      // to 10 degrees will go through 0 rather than the other direction which is a
-      // longer route.
-
-      errors += check(m_turningPIDController.setPositionPIDWrappingEnabled(true));
-      errors += check(m_turningPIDController
-            .setPositionPIDWrappingMinInput(SwerveModuleConstants.kTurningEncoderPositionPIDMinInput));
-      errors += check(m_turningPIDController
-            .setPositionPIDWrappingMaxInput(SwerveModuleConstants.kTurningEncoderPositionPIDMaxInput));
-
-      // Set the PID gains for the driving motor
-      errors += check(m_drivingPIDController.setP(SwerveModuleConstants.kDrivingP));
-      errors += check(m_drivingPIDController.setI(SwerveModuleConstants.kDrivingI));
-      errors += check(m_drivingPIDController.setD(SwerveModuleConstants.kDrivingD));
-      errors += check(m_drivingPIDController.setFF(SwerveModuleConstants.kDrivingFF));
-      errors += check(m_drivingPIDController.setOutputRange(SwerveModuleConstants.kDrivingMinOutput,
-            SwerveModuleConstants.kDrivingMaxOutput));
-
-      // Set the PID gains for the turning motor
-      errors += check(m_turningPIDController.setP(SwerveModuleConstants.kTurningP));
-      errors += check(m_turningPIDController.setI(SwerveModuleConstants.kTurningI));
-      errors += check(m_turningPIDController.setD(SwerveModuleConstants.kTurningD));
-      errors += check(m_turningPIDController.setFF(SwerveModuleConstants.kTurningFF));
-      errors += check(m_turningPIDController.setOutputRange(SwerveModuleConstants.kTurningMinOutput,
-            SwerveModuleConstants.kTurningMaxOutput));
-
       this.chassisAngularOffset = chassisAngularOffset;
 
-      errors += check(m_drivingEncoder.setPosition(0));
-
-      if (errors > 0) {
-         System.out.println("Swerve Module Errors! Name: " + name + ", Amount: " + errors);
+      if (m_drivingEncoder.setPosition(0) != REVLibError.kOk) {
+         System.out.println("Swerve Module Errors! Name: " + name + ", failed to zero drive encoder");
       }
    }
 
+   private static SparkConfig drivingConfig() {
+      return MotorUtil.baseConfig(Constants.NEO_CURRENT_LIMIT, SwerveModuleConstants.kDrivingEncoderInverted, true, 0)
+            .add("voltage compensation", 12, (spark, value) -> spark.enableVoltageCompensation(value))
+            .add("feedback device", (spark, values) -> spark.getPIDController().setFeedbackDevice(spark.getEncoder()))
+            // Apply position and velocity conversion factors for the driving encoder. The
+            // native units for position and velocity are rotations and RPM, respectively,
+            // but we want meters and meters per second to use with WPILib's swerve APIs.
+            .add("position conversion", SwerveModuleConstants.kDrivingEncoderPositionFactor,
+                  (spark, value) -> spark.getEncoder().setPositionConversionFactor(value))
+            .add("velocity conversion", SwerveModuleConstants.kDrivingEncoderVelocityFactor,
+                  (spark, value) -> spark.getEncoder().setVelocityConversionFactor(value))
+            // Set the PID gains for the driving motor
+            .add("p", SwerveModuleConstants.kDrivingP, (spark, value) -> spark.getPIDController().setP(value))
+            .add("i", SwerveModuleConstants.kDrivingI, (spark, value) -> spark.getPIDController().setI(value))
+            .add("d", SwerveModuleConstants.kDrivingD, (spark, value) -> spark.getPIDController().setD(value))
+            .add("ff", SwerveModuleConstants.kDrivingFF, (spark, value) -> spark.getPIDController().setFF(value))
+            .add("output range", (spark, values) -> spark.getPIDController().setOutputRange(values[0], values[1]),
+                  SwerveModuleConstants.kDrivingMinOutput, SwerveModuleConstants.kDrivingMaxOutput);
+   }
+
+   private static SparkConfig turningConfig() {
+      return MotorUtil.baseConfig(Constants.NEO550_CURRENT_LIMIT, false, true, 0)
+            .add("voltage compensation", 12, (spark, value) -> spark.enableVoltageCompensation(value))
+            .add("feedback device", (spark, values) -> spark.getPIDController().setFeedbackDevice(turningEncoder(spark)))
+            // Apply position and velocity conversion factors for the turning encoder. We
+            // want these in radians and radians per second to use with WPILib's swerve
+            // APIs.
+            .add("position conversion", SwerveModuleConstants.kTurningEncoderPositionFactor,
+                  (spark, value) -> turningEncoder(spark).setPositionConversionFactor(value))
+            .add("velocity conversion", SwerveModuleConstants.kTurningEncoderVelocityFactor,
+                  (spark, value) -> turningEncoder(spark).setVelocityConversionFactor(value))
+            // Invert the turning encoder, since the output shaft rotates in the opposite
+            // direction of
+            // the steering motor in the MAXSwerve Module.
+            .add("encoder inverted", SwerveModuleConstants.kTurningEncoderInverted,
+                  (spark, value) -> turningEncoder(spark).setInverted(value != 0))
+            // Enable PID wrap around for the turning motor. This will allow the PID
+            // controller to go through 0 to get to the setpoint i.e. going from 350 degrees
+            // to 10 degrees will go through 0 rather than the other direction which is a
+            // longer route.
+            .add("wrapping", true,
+                  (spark, value) -> spark.getPIDController().setPositionPIDWrappingEnabled(value != 0))
+            .add("wrapping min", SwerveModuleConstants.kTurningEncoderPositionPIDMinInput,
+                  (spark, value) -> spark.getPIDController().setPositionPIDWrappingMinInput(value))
+            .add("wrapping max", SwerveModuleConstants.kTurningEncoderPositionPIDMaxInput,
+                  (spark, value) -> spark.getPIDController().setPositionPIDWrappingMaxInput(value))
+            // Set the PID gains for the turning motor
+            .add("p", SwerveModuleConstants.kTurningP, (spark, value) -> spark.getPIDController().setP(value))
+            .add("i", SwerveModuleConstants.kTurningI, (spark, value) -> spark.getPIDController().setI(value))
+            .add("d", SwerveModuleConstants.kTurningD, (spark, value) -> spark.getPIDController().setD(value))
+            .add("ff", SwerveModuleConstants.kTurningFF, (spark, value) -> spark.getPIDController().setFF(value))
+            .add("output range", (spark, values) -> spark.getPIDController().setOutputRange(values[0], values[1]),
+                  SwerveModuleConstants.kTurningMinOutput, SwerveModuleConstants.kTurningMaxOutput);
+   }
+
+   private static AbsoluteEncoder turningEncoder(CANSparkMax spark) {
+      return spark.getAbsoluteEncoder(Type.kDutyCycle);
+   }
+
    public void updateInputs(SwerveModuleIOInputs inputs) {
-      inputs.driveBusVoltage = getDriveBusVoltage();
-      inputs.driveAppliedVolts = getDriveBusVoltage() * getDriveOutput();
+      // each getter is its own JNI call, so read every value only once
       inputs.drivePositionMeters = getDriveEncoderPosition();
       inputs.driveVelocityMPS = getDriveEncoderSpeedMPS();
-      inputs.turnBusVoltage = getTurnBusVoltage();
-      inputs.turnAppliedVolts = getTurnBusVoltage() * getTurnOutput();
+      inputs.driveBusVoltage = getDriveBusVoltage();
+      inputs.driveAppliedOutput = getDriveOutput();
+      inputs.driveAppliedVolts = inputs.driveBusVoltage * inputs.driveAppliedOutput;
       inputs.turnPositionRad = getTurnEncoderPosition();
-
+      inputs.turnBusVoltage = getTurnBusVoltage();
+      inputs.turnAppliedOutput = getTurnOutput();
+      inputs.turnAppliedVolts = inputs.turnBusVoltage * inputs.turnAppliedOutput;
    }
 
    public void setDriveEncoderPosition(double position) {
@@ -136,7 +137,7 @@ public class SwerveModuleIO_Real implements SwerveModuleIO {
    };
 
    public void setDesiredDriveSpeedMPS(double speed) {
-      m_drivingPIDController.setReference(speed, ControlType.kVelocity);
+      m_drivingSparkMax.setReference(speed, ControlType.kVelocity);
    };
 
    public double getDriveEncoderSpeedMPS() {
@@ -148,7 +149,7 @@ public class SwerveModuleIO_Real implements SwerveModuleIO {
    };
 
    public void setDesiredTurnAngle(double angle) {
-      m_turningPIDController.setReference(angle, ControlType.kPosition);
+      m_turningSparkMax.setReference(angle, ControlType.kPosition);
    };
 
    public double getDriveBusVoltage() {
@@ -175,8 +176,4 @@ public class SwerveModuleIO_Real implements SwerveModuleIO {
       return chassisAngularOffset;
    }
 
-   private int check(REVLibError err) {
-      return err == REVLibError.kOk ? 0 : 1;
-   }
-
 }
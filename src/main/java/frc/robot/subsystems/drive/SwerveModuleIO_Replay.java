@@ -0,0 +1,72 @@
+package frc.robot.subsystems.drive;
+
+/**
+ * Stands in for a real swerve module when replaying a log. The module fills
+ * the inputs in from the log, so every getter just returns them and outputs go
+ * nowhere.
+ */
+public class SwerveModuleIO_Replay implements SwerveModuleIO {
+
+   private final double chassisAngularOffset;
+   private final String name;
+   private SwerveModuleIOInputs inputs = new SwerveModuleIOInputs();
+
+   /**
+    * @param chassisAngularOffset The same offset the real module was made with.
+    * @param name                 The same name the real module was made with, so
+    *                             its inputs are found in the log.
+    */
+   public SwerveModuleIO_Replay(double chassisAngularOffset, String name) {
+      this.chassisAngularOffset = chassisAngularOffset;
+      this.name = name;
+   }
+
+   public void updateInputs(SwerveModuleIOInputs inputs) {
+      this.inputs = inputs;
+   }
+
+   public void setDriveEncoderPosition(double position) {
+   }
+
+   public double getDriveEncoderPosition() {
+      return inputs.drivePositionMeters;
+   }
+
+   public void setDesiredDriveSpeedMPS(double speed) {
+   }
+
+   public double getDriveEncoderSpeedMPS() {
+      return inputs.driveVelocityMPS;
+   }
+
+   public double getTurnEncoderPosition() {
+      return inputs.turnPositionRad;
+   }
+
+   public void setDesiredTurnAngle(double angle) {
+   }
+
+   public double getDriveBusVoltage() {
+      return inputs.driveBusVoltage;
+   }
+
+   public double getDriveOutput() {
+      return inputs.driveAppliedOutput;
+   }
+
+   public double getTurnBusVoltage() {
+      return inputs.turnBusVoltage;
+   }
+
+   public double getTurnOutput() {
+      return inputs.turnAppliedOutput;
+   }
+
+   public double getChassisAngularOffset() {
+      return chassisAngularOffset;
+   }
+
+   public String getName() {
+      return name;
+   }
+}
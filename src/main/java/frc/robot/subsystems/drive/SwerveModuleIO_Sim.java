@@ -3,15 +3,18 @@ package frc.robot.subsystems.drive;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.simulation.DCMotorSim;
 import frc.robot.Constants;
+import frc.robot.Constants.SimConstants;
+import frc.robot.sim.SimNoise;
 import frc.utils.SimEncoder;
 
 public class SwerveModuleIO_Sim implements SwerveModuleIO {
 
    // Simualaion Motors
-   private DCMotorSim driveMotor = new DCMotorSim(DCMotor.getNEO(1), Constants.SwerveModuleConstants.kDrivingMotorReduction,
-         0.025);
+   private final DCMotor driveGearbox = DCMotor.getNEO(1);
    private DCMotorSim turnMotor = new DCMotorSim(DCMotor.getNeo550(1), Constants.SwerveModuleConstants.kTurningMotorReduction,
          0.025);
 
@@ -27,6 +30,15 @@ public class SwerveModuleIO_Sim implements SwerveModuleIO {
 
    private double driveMotorOutput = 0.0;
    private double turnMotorOutput = 0.0;
+   // DCMotorSim.setInputVoltage builds a new matrix, so only call it on a change
+   private double turnMotorVolts = 0.0;
+
+   private static final double WHEEL_RADIUS = Constants.SwerveModuleConstants.kWheelDiameterMeters / 2;
+   // the wheel itself, as opposed to what the encoder says once slip noise is
+   // added
+   private double wheelVelocityRadPerSec = 0.0;
+   private double wheelPositionRad = 0.0;
+   private double encoderWheelPositionRad = 0.0;
 
    public SwerveModuleIO_Sim(String name) {
       m_drivingEncoder = new SimEncoder(name + " drive encoder");
@@ -34,12 +46,68 @@ public class SwerveModuleIO_Sim implements SwerveModuleIO {
       this.name = name;
    }
 
+   /**
+    * Torque the drive motor is putting on the wheel right now, with the SPARK
+    * MAX's current limit. Disabled, the motor is shorted in brake mode.
+    */
+   public double getDriveTorque() {
+      double volts = DriverStation.isDisabled() ? 0 : MathUtil.clamp(driveMotorOutput, -12, 12);
+      double current = driveGearbox.getCurrent(
+            wheelVelocityRadPerSec * Constants.SwerveModuleConstants.kDrivingMotorReduction, volts);
+      current = MathUtil.clamp(current, -Constants.SwerveModuleConstants.kDrivingMotorCurrentLimit,
+            Constants.SwerveModuleConstants.kDrivingMotorCurrentLimit);
+      return driveGearbox.getTorque(current) * Constants.SwerveModuleConstants.kDrivingMotorReduction;
+   }
+
+   /**
+    * Advances the wheel and steering by one physics step. Called by the
+    * drivetrain sim, which works out how hard the carpet pushes back.
+    *
+    * @param groundForce Force from the carpet on the wheel's tread, along the
+    *                    wheel, in newtons. Positive slows a forward spinning
+    *                    wheel.
+    */
+   public void simulationStep(double dt, double groundForce) {
+      wheelVelocityRadPerSec += (getDriveTorque() - groundForce * WHEEL_RADIUS)
+            / SimConstants.DRIVE_WHEEL_MOI * dt;
+      wheelPositionRad += wheelVelocityRadPerSec * dt;
+      if (DriverStation.isDisabled()) {
+         // motor controllers stop driving when the robot is disabled
+         setTurnMotorVolts(0);
+      }
+      turnMotor.update(dt);
+   }
+
+   /** Copies the wheel and steering into the encoders, once per loop. */
+   public void updateEncoders() {
+      // a slipping wheel turns further than the robot moves
+      m_drivingEncoder.setDistance(m_drivingEncoder.getDistance()
+            + SimNoise.slipWheel((wheelPositionRad - encoderWheelPositionRad) * WHEEL_RADIUS));
+      encoderWheelPositionRad = wheelPositionRad;
+      m_drivingEncoder.setSpeed(getWheelSurfaceSpeed());
+      m_turningEncoder.setDistance(turnMotor.getAngularPositionRad());
+   }
+
+   /** How fast the tread is moving relative to the module, in meters per second. */
+   public double getWheelSurfaceSpeed() {
+      return wheelVelocityRadPerSec * WHEEL_RADIUS;
+   }
+
+   /** Which way the wheel really points, relative to the chassis, in radians. */
+   public double getTrueAngle() {
+      return turnMotor.getAngularPositionRad() - getChassisAngularOffset();
+   }
+
    public void updateInputs(SwerveModuleIOInputs inputs) {
-      driveMotor.update(1.0/Constants.CodeConstants.kMainLoopFrequency);
-      turnMotor.update(1.0/Constants.CodeConstants.kMainLoopFrequency);
-      m_drivingEncoder.setDistance(driveMotor.getAngularPositionRotations() );
-      m_drivingEncoder.setSpeed(driveMotor.getAngularVelocityRadPerSec() );
-      m_turningEncoder.setDistance(turnMotor.getAngularPositionRad() );
+      inputs.drivePositionMeters = getDriveEncoderPosition();
+      inputs.driveVelocityMPS = getDriveEncoderSpeedMPS();
+      inputs.driveBusVoltage = RobotController.getBatteryVoltage();
+      inputs.driveAppliedOutput = driveMotorOutput / 12;
+      inputs.driveAppliedVolts = driveMotorOutput;
+      inputs.turnPositionRad = getTurnEncoderPosition();
+      inputs.turnBusVoltage = RobotController.getBatteryVoltage();
+      inputs.turnAppliedOutput = turnMotorOutput / 12;
+      inputs.turnAppliedVolts = turnMotorOutput;
    };
 
    public void setDriveEncoderPosition(double position) {
@@ -59,21 +127,25 @@ public class SwerveModuleIO_Sim implements SwerveModuleIO {
    };
 
    public void setDesiredDriveSpeedMPS(double speed) {
-      driveMotorOutput = m_drivingPIDController.calculate(getDriveEncoderSpeedMPS(), speed);
-
-      // Apply PID output
-      driveMotor.setInputVoltage(MathUtil.clamp(driveMotorOutput,-12, 12));
-      driveMotor.getAngularVelocityRPM();
-
+      // same feedforward the real SPARK MAX uses, scaled to volts
+      driveMotorOutput = 12 * speed / Constants.SwerveModuleConstants.kDriveWheelFreeSpeedRps
+            + m_drivingPIDController.calculate(getDriveEncoderSpeedMPS(), speed);
    };
 
    public void setDesiredTurnAngle(double angle) {
       turnMotorOutput = m_turningPIDController.calculate(getTurnEncoderPosition(), angle);
 
       // Apply PID output
-      turnMotor.setInputVoltage(MathUtil.clamp(turnMotorOutput, -12, 12));
+      setTurnMotorVolts(MathUtil.clamp(turnMotorOutput, -12, 12));
    };
 
+   private void setTurnMotorVolts(double volts) {
+      if (volts != turnMotorVolts) {
+         turnMotorVolts = volts;
+         turnMotor.setInputVoltage(volts);
+      }
+   }
+
    public double getDriveBusVoltage() {
       return 0;
    };
@@ -0,0 +1,226 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.utils.SwerveUtils;
+
+/**
+ * Turns the chassis speeds we'd like into module states the modules can
+ * actually reach by next loop.
+ *
+ * <p>
+ * Each loop the generator moves from the last setpoint towards the desired
+ * speeds along a straight line in chassis-speed space, going only as far as
+ * every module can follow without exceeding its acceleration or steering
+ * speed limit. Wheels that would have to turn more than 90 degrees drive
+ * backwards instead, and when starting from a stop the wheels are pointed
+ * the right way before any of them start driving.
+ */
+public class SwerveSetpointGenerator {
+
+  // module speeds below this are treated as stopped
+  private static final double EPSILON = 1E-6; // meters per second
+  private static final int STEERING_BISECTION_ITERATIONS = 10;
+
+  private final Translation2d[] moduleLocations;
+  private final double maxSpeed;
+  private final double maxAcceleration;
+  private final double maxSteeringSpeed;
+
+  // the last setpoint we produced
+  private final ChassisSpeeds setpoint = new ChassisSpeeds();
+  private final double[] moduleSpeeds;
+  private final double[] moduleAngles;
+
+  /**
+   * @param moduleLocations  Location of each module relative to the center of
+   *                         the robot.
+   * @param maxSpeed         Fastest any module can drive (meters per second).
+   * @param maxAcceleration  Fastest any module's velocity can change (meters
+   *                         per second squared).
+   * @param maxSteeringSpeed Fastest any module can steer (radians per second).
+   */
+  public SwerveSetpointGenerator(Translation2d[] moduleLocations, double maxSpeed, double maxAcceleration,
+      double maxSteeringSpeed) {
+    this.moduleLocations = moduleLocations;
+    this.maxSpeed = maxSpeed;
+    this.maxAcceleration = maxAcceleration;
+    this.maxSteeringSpeed = maxSteeringSpeed;
+    moduleSpeeds = new double[moduleLocations.length];
+    moduleAngles = new double[moduleLocations.length];
+  }
+
+  /**
+   * Starts the next setpoint from where the modules are now, e.g. while
+   * disabled or after something other than the generator moved them.
+   */
+  public void reset(SwerveModuleState[] states, ChassisSpeeds speeds) {
+    setpoint.vxMetersPerSecond = speeds.vxMetersPerSecond;
+    setpoint.vyMetersPerSecond = speeds.vyMetersPerSecond;
+    setpoint.omegaRadiansPerSecond = speeds.omegaRadiansPerSecond;
+    for (int i = 0; i < moduleLocations.length; i++) {
+      moduleSpeeds[i] = states[i].speedMetersPerSecond;
+      moduleAngles[i] = states[i].angle.getRadians();
+    }
+  }
+
+  /**
+   * Computes the next feasible setpoint.
+   *
+   * @param desired   Desired robot-relative speeds. Not modified.
+   * @param dtSeconds Time until the next setpoint.
+   * @param states    Module states to overwrite with the setpoint, in the same
+   *                  order as the module locations.
+   */
+  public void generate(ChassisSpeeds desired, double dtSeconds, SwerveModuleState[] states) {
+    // Desaturate in chassis space so the robot keeps its direction of travel
+    double scale = 1;
+    boolean wantsToMove = false;
+    for (int i = 0; i < moduleLocations.length; i++) {
+      double speed = Math.hypot(moduleVx(desired.vxMetersPerSecond, desired.omegaRadiansPerSecond, i),
+          moduleVy(desired.vyMetersPerSecond, desired.omegaRadiansPerSecond, i));
+      if (speed > maxSpeed) {
+        scale = Math.min(scale, maxSpeed / speed);
+      }
+      wantsToMove |= speed > EPSILON;
+    }
+    double dvx = desired.vxMetersPerSecond * scale - setpoint.vxMetersPerSecond;
+    double dvy = desired.vyMetersPerSecond * scale - setpoint.vyMetersPerSecond;
+    double domega = desired.omegaRadiansPerSecond * scale - setpoint.omegaRadiansPerSecond;
+    double maxSteeringStep = maxSteeringSpeed * dtSeconds;
+
+    if (wantsToMove && isStopped() && steerBeforeDriving(dvx, dvy, domega, maxSteeringStep)) {
+      writeStates(states);
+      return;
+    }
+
+    // Module velocities are linear in the chassis speeds, so the acceleration
+    // limit can be solved for exactly
+    double s = 1;
+    for (int i = 0; i < moduleLocations.length; i++) {
+      double dv = Math.hypot(moduleVx(dvx, domega, i), moduleVy(dvy, domega, i));
+      if (dv > EPSILON) {
+        s = Math.min(s, maxAcceleration * dtSeconds / dv);
+      }
+    }
+
+    // Module headings aren't, so bisect for the furthest we can go
+    for (int i = 0; i < moduleLocations.length; i++) {
+      if (steeringError(i, s, dvx, dvy, domega) > maxSteeringStep) {
+        double low = 0;
+        double high = s;
+        for (int j = 0; j < STEERING_BISECTION_ITERATIONS; j++) {
+          double mid = (low + high) / 2;
+          if (steeringError(i, mid, dvx, dvy, domega) > maxSteeringStep) {
+            high = mid;
+          } else {
+            low = mid;
+          }
+        }
+        s = low;
+      }
+    }
+
+    setpoint.vxMetersPerSecond += s * dvx;
+    setpoint.vyMetersPerSecond += s * dvy;
+    setpoint.omegaRadiansPerSecond += s * domega;
+    for (int i = 0; i < moduleLocations.length; i++) {
+      double vx = moduleVx(setpoint.vxMetersPerSecond, setpoint.omegaRadiansPerSecond, i);
+      double vy = moduleVy(setpoint.vyMetersPerSecond, setpoint.omegaRadiansPerSecond, i);
+      double speed = Math.hypot(vx, vy);
+      if (speed < EPSILON) {
+        // a stopped module keeps pointing where it was
+        moduleSpeeds[i] = 0;
+        continue;
+      }
+      double angle = Math.atan2(vy, vx);
+      if (Math.abs(MathUtil.angleModulus(angle - moduleAngles[i])) > Math.PI / 2) {
+        // drive backwards rather than turning the wheel around
+        angle = MathUtil.angleModulus(angle + Math.PI);
+        speed = -speed;
+      }
+      moduleSpeeds[i] = speed;
+      moduleAngles[i] = angle;
+    }
+    writeStates(states);
+  }
+
+  /**
+   * If the wheels aren't already pointing the way we want to go, steers them
+   * towards it at the maximum steering speed without driving.
+   *
+   * @return false if the wheels are close enough to start driving.
+   */
+  private boolean steerBeforeDriving(double vx, double vy, double omega, double maxSteeringStep) {
+    boolean aligned = true;
+    for (int i = 0; i < moduleLocations.length; i++) {
+      double error = flipAwareDifference(
+          Math.atan2(moduleVy(vy, omega, i), moduleVx(vx, omega, i)), moduleAngles[i]);
+      aligned &= Math.abs(error) <= maxSteeringStep;
+    }
+    if (aligned) {
+      return false;
+    }
+    for (int i = 0; i < moduleLocations.length; i++) {
+      double error = flipAwareDifference(
+          Math.atan2(moduleVy(vy, omega, i), moduleVx(vx, omega, i)), moduleAngles[i]);
+      moduleAngles[i] = MathUtil.angleModulus(SwerveUtils.StepTowardsCircular(
+          moduleAngles[i], moduleAngles[i] + error, maxSteeringStep));
+    }
+    return true;
+  }
+
+  /** How far module {@code i} would have to steer to get {@code s} of the way. */
+  private double steeringError(int i, double s, double dvx, double dvy, double domega) {
+    double omega = setpoint.omegaRadiansPerSecond + s * domega;
+    double vx = moduleVx(setpoint.vxMetersPerSecond + s * dvx, omega, i);
+    double vy = moduleVy(setpoint.vyMetersPerSecond + s * dvy, omega, i);
+    if (Math.hypot(vx, vy) < EPSILON) {
+      return 0;
+    }
+    return Math.abs(flipAwareDifference(Math.atan2(vy, vx), moduleAngles[i]));
+  }
+
+  /**
+   * Signed angle from {@code current} to {@code target} or to the opposite of
+   * {@code target}, whichever is closer, since a wheel can drive either way.
+   */
+  private static double flipAwareDifference(double target, double current) {
+    double difference = MathUtil.angleModulus(target - current);
+    if (difference > Math.PI / 2) {
+      difference -= Math.PI;
+    } else if (difference < -Math.PI / 2) {
+      difference += Math.PI;
+    }
+    return difference;
+  }
+
+  private boolean isStopped() {
+    for (double speed : moduleSpeeds) {
+      if (Math.abs(speed) > EPSILON) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private double moduleVx(double vx, double omega, int i) {
+    return vx - omega * moduleLocations[i].getY();
+  }
+
+  private double moduleVy(double vy, double omega, int i) {
+    return vy + omega * moduleLocations[i].getX();
+  }
+
+  private void writeStates(SwerveModuleState[] states) {
+    for (int i = 0; i < moduleLocations.length; i++) {
+      states[i].speedMetersPerSecond = moduleSpeeds[i];
+      if (states[i].angle.getRadians() != moduleAngles[i]) {
+        states[i].angle = Rotation2d.fromRadians(moduleAngles[i]);
+      }
+    }
+  }
+}
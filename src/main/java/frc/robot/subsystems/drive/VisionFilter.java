@@ -0,0 +1,133 @@
+package frc.robot.subsystems.drive;
+
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.Constants.VisionConstants;
+
+/**
+ * Decides whether a vision estimate is worth fusing and how much to trust it.
+ *
+ * <p>
+ * Std devs come from how many tags were seen, how far away they were, how
+ * ambiguous a single tag was and how fast the robot was moving. Estimates
+ * that disagree too much with where odometry says we were at capture time are
+ * thrown out as outliers.
+ */
+public class VisionFilter {
+
+  /** Why the last estimate was accepted or rejected. */
+  public enum Result {
+    ACCEPTED,
+    NO_TAGS,
+    AMBIGUOUS,
+    TOO_FAR,
+    OFF_FIELD,
+    OUTLIER
+  }
+
+  // reused for every accepted measurement; the pose estimator copies it
+  private final Matrix<N3, N1> stdDevs = VecBuilder.fill(0, 0, 0);
+  private final long[] counts = new long[Result.values().length];
+  private int consecutiveRejections = 0;
+
+  /**
+   * @param estimate  The camera's estimate.
+   * @param predicted Where we think the robot was when the frame was captured.
+   * @param speeds    The robot's measured robot-relative speeds.
+   * @return {@link Result#ACCEPTED} if the estimate should be fused, with
+   *         {@link #getStdDevs()}, otherwise why it was rejected.
+   */
+  public Result check(EstimatedRobotPose estimate, Pose2d predicted, ChassisSpeeds speeds) {
+    Result result = evaluate(estimate, predicted, speeds);
+    counts[result.ordinal()]++;
+    return result;
+  }
+
+  private Result evaluate(EstimatedRobotPose estimate, Pose2d predicted, ChassisSpeeds speeds) {
+    int tagCount = estimate.targetsUsed.size();
+    if (tagCount == 0) {
+      return Result.NO_TAGS;
+    }
+
+    double totalDistance = 0;
+    double ambiguity = 0;
+    for (PhotonTrackedTarget target : estimate.targetsUsed) {
+      totalDistance += target.getBestCameraToTarget().getTranslation().getNorm();
+      ambiguity = Math.max(ambiguity, target.getPoseAmbiguity());
+    }
+    double averageDistance = totalDistance / tagCount;
+
+    // multi-tag solves report an ambiguity of -1, which max() ignores
+    if (tagCount == 1 && ambiguity > VisionConstants.MAX_AMBIGUITY) {
+      return Result.AMBIGUOUS;
+    }
+    if (averageDistance > VisionConstants.MAX_TAG_DISTANCE_METERS) {
+      return Result.TOO_FAR;
+    }
+    if (Math.abs(estimate.estimatedPose.getZ()) > VisionConstants.MAX_Z_ERROR_METERS
+        || !isOnField(estimate.estimatedPose.getX(), estimate.estimatedPose.getY())) {
+      return Result.OFF_FIELD;
+    }
+
+    double scale = averageDistance * averageDistance / tagCount
+        * (1 + VisionConstants.LINEAR_SPEED_STD_DEV_SCALE
+            * Math.hypot(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond)
+            + VisionConstants.ANGULAR_SPEED_STD_DEV_SCALE * Math.abs(speeds.omegaRadiansPerSecond));
+    double xyStdDev = VisionConstants.XY_STD_DEV_COEFFICIENT * scale;
+    double thetaStdDev = VisionConstants.THETA_STD_DEV_COEFFICIENT * scale;
+    if (tagCount == 1) {
+      xyStdDev *= 1 + VisionConstants.AMBIGUITY_STD_DEV_SCALE * Math.max(ambiguity, 0);
+      thetaStdDev = VisionConstants.SINGLE_TAG_THETA_STD_DEV;
+    }
+
+    Pose2d measured = estimate.estimatedPose.toPose2d();
+    double dx = measured.getX() - predicted.getX();
+    double dy = measured.getY() - predicted.getY();
+    double dTheta = MathUtil.angleModulus(
+        measured.getRotation().getRadians() - predicted.getRotation().getRadians());
+    // the innovation's covariance is the odometry's plus the measurement's
+    double xyVariance = xyStdDev * xyStdDev
+        + VisionConstants.ODOMETRY_STD_DEV_METERS * VisionConstants.ODOMETRY_STD_DEV_METERS;
+    double thetaVariance = thetaStdDev * thetaStdDev
+        + VisionConstants.ODOMETRY_STD_DEV_RADIANS * VisionConstants.ODOMETRY_STD_DEV_RADIANS;
+    double mahalanobisSquared = (dx * dx + dy * dy) / xyVariance + dTheta * dTheta / thetaVariance;
+
+    if (mahalanobisSquared > VisionConstants.MAHALANOBIS_GATE
+        && consecutiveRejections < VisionConstants.MAX_CONSECUTIVE_REJECTIONS) {
+      consecutiveRejections++;
+      return Result.OUTLIER;
+    }
+
+    consecutiveRejections = 0;
+    stdDevs.set(0, 0, xyStdDev);
+    stdDevs.set(1, 0, xyStdDev);
+    stdDevs.set(2, 0, thetaStdDev);
+    return Result.ACCEPTED;
+  }
+
+  private static boolean isOnField(double x, double y) {
+    return x >= 0 && x <= VisionConstants.KFIELDLAYOUT.getFieldLength()
+        && y >= 0 && y <= VisionConstants.KFIELDLAYOUT.getFieldWidth();
+  }
+
+  /**
+   * The std devs for the last accepted estimate. Reused, so pass it straight
+   * to the pose estimator.
+   */
+  public Matrix<N3, N1> getStdDevs() {
+    return stdDevs;
+  }
+
+  /** How many estimates have had {@code result} so far. */
+  public long getCount(Result result) {
+    return counts[result.ordinal()];
+  }
+}
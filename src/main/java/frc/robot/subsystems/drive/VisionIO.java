@@ -1,8 +1,15 @@
 package frc.robot.subsystems.drive;
 
-import java.util.Optional;
+import java.util.List;
 import org.photonvision.EstimatedRobotPose;
 
 public interface VisionIO {
-  public Optional<EstimatedRobotPose> getVisionPose();
-}
\ No newline at end of file
+  /**
+   * Returns every pose estimate that has arrived from any camera since the last
+   * call, oldest first. Called from the main loop, so it must not block.
+   *
+   * <p>
+   * The returned list may be reused and overwritten by the next call.
+   */
+  public List<EstimatedRobotPose> getVisionPoses();
+}
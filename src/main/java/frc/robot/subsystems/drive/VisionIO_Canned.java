@@ -0,0 +1,79 @@
+package frc.robot.subsystems.drive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.photonvision.EstimatedRobotPose;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.CodeConstants;
+
+/**
+ * Plays back a fixed list of vision estimates through the same background
+ * thread the real cameras use, so the vision path can be exercised in
+ * simulation and tests. Not to be confused with log replay: these estimates
+ * are made up, not read from a robot log.
+ *
+ * <p>
+ * The timestamps of the canned estimates are taken relative to the first one
+ * and each estimate is released once that much time has passed since the
+ * stand-in was created. Released estimates are re-stamped with the current FPGA
+ * time minus their original latency, so the pose estimator sees them the same
+ * way it would see a live camera.
+ */
+public class VisionIO_Canned implements VisionIO {
+  private final List<EstimatedRobotPose> results;
+  private final boolean loop;
+  private final VisionThread visionThread;
+  private final List<EstimatedRobotPose> poses = new ArrayList<>();
+
+  // only touched by the vision thread
+  private double startTime;
+  private int nextResult = 0;
+
+  /**
+   * @param results Estimates to play back, oldest first.
+   * @param latency Seconds between when each frame was captured and when it
+   *                is released.
+   * @param loop    Whether to start over after the last estimate.
+   */
+  public VisionIO_Canned(List<EstimatedRobotPose> results, double latency, boolean loop) {
+    this.results = List.copyOf(results);
+    this.loop = loop;
+    startTime = Timer.getFPGATimestamp() + latency;
+    visionThread = new VisionThread("Canned vision", () -> nextResult(latency));
+    visionThread.start();
+  }
+
+  private Optional<EstimatedRobotPose> nextResult(double latency) {
+    if (results.isEmpty()) {
+      return Optional.empty();
+    }
+    if (nextResult >= results.size()) {
+      if (!loop) {
+        return Optional.empty();
+      }
+      // leave one frame of spacing between the last result and the first
+      double lastTime = results.get(results.size() - 1).timestampSeconds;
+      startTime += lastTime - results.get(0).timestampSeconds
+          + 1.0 / CodeConstants.kVisionFrequency;
+      nextResult = 0;
+    }
+
+    EstimatedRobotPose result = results.get(nextResult);
+    double releaseTime = startTime + result.timestampSeconds - results.get(0).timestampSeconds;
+    double now = Timer.getFPGATimestamp();
+    if (now < releaseTime) {
+      return Optional.empty();
+    }
+    nextResult++;
+    return Optional.of(new EstimatedRobotPose(result.estimatedPose, now - latency,
+        result.targetsUsed, result.strategy));
+  }
+
+  public List<EstimatedRobotPose> getVisionPoses() {
+    poses.clear();
+    visionThread.drain(poses);
+    return poses;
+  }
+}
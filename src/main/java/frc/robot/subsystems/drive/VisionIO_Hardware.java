@@ -1,28 +1,45 @@
 package frc.robot.subsystems.drive;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import org.photonvision.EstimatedRobotPose;
 import org.photonvision.PhotonCamera;
 import org.photonvision.PhotonPoseEstimator;
 import org.photonvision.PhotonPoseEstimator.PoseStrategy;
 
-import edu.wpi.first.math.geometry.Rotation3d;
-import edu.wpi.first.math.geometry.Transform3d;
-import edu.wpi.first.math.geometry.Translation3d;
-import edu.wpi.first.math.util.Units;
 import frc.robot.Constants.VisionConstants;
 
 public class VisionIO_Hardware implements VisionIO {
-  public final PhotonCamera camera;
-  private final PhotonPoseEstimator camEstimator;
+  private static final Comparator<EstimatedRobotPose> BY_TIMESTAMP = Comparator
+      .comparingDouble(pose -> pose.timestampSeconds);
+
+  private final PhotonCamera[] cameras;
+  private final VisionThread[] visionThreads;
+  private final List<EstimatedRobotPose> poses = new ArrayList<>();
 
   public VisionIO_Hardware() {
-    camera = new PhotonCamera("backup_camera"); // swap if swapping cameras
-    camEstimator = new PhotonPoseEstimator(VisionConstants.KFIELDLAYOUT,
-        PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, camera, VisionConstants.ROBOT_TO_CAM);
+    cameras = new PhotonCamera[VisionConstants.CAMERA_NAMES.length];
+    visionThreads = new VisionThread[cameras.length];
+    for (int i = 0; i < cameras.length; i++) {
+      cameras[i] = new PhotonCamera(VisionConstants.CAMERA_NAMES[i]);
+      PhotonPoseEstimator camEstimator = new PhotonPoseEstimator(VisionConstants.KFIELDLAYOUT,
+          PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, cameras[i], VisionConstants.ROBOT_TO_CAMS[i]);
+      // each camera gets its own thread, so they're processed in parallel and a
+      // slow camera can't hold up the others. The estimator is only ever
+      // touched by its thread from here on.
+      visionThreads[i] = new VisionThread("Vision " + cameras[i].getName(), camEstimator::update);
+      visionThreads[i].start();
+    }
   }
 
-  public Optional<EstimatedRobotPose> getVisionPose() {
-    return camEstimator.update();
+  /** Returns every estimate the vision threads have finished, oldest first. */
+  public List<EstimatedRobotPose> getVisionPoses() {
+    poses.clear();
+    for (VisionThread visionThread : visionThreads) {
+      visionThread.drain(poses);
+    }
+    poses.sort(BY_TIMESTAMP);
+    return poses;
   }
-}
\ No newline at end of file
+}
@@ -1,12 +1,11 @@
 package frc.robot.subsystems.drive;
 
-import java.util.Optional;
+import java.util.List;
 import org.photonvision.EstimatedRobotPose;
 
 public class VisionIO_Placebo implements VisionIO {
 
-  public Optional<EstimatedRobotPose> getVisionPose() {
-    Optional<EstimatedRobotPose> placeboPoseEstimate = Optional.empty();
-    return placeboPoseEstimate;
+  public List<EstimatedRobotPose> getVisionPoses() {
+    return List.of();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package frc.robot.subsystems.drive;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonCamera;
+import org.photonvision.simulation.PhotonCameraSim;
+import org.photonvision.simulation.SimCameraProperties;
+import org.photonvision.simulation.VisionSystemSim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.Constants.SimConstants;
+import frc.robot.Constants.VisionConstants;
+
+/**
+ * Simulates every camera in {@link VisionConstants#CAMERA_NAMES} with
+ * PhotonVision's camera sim, which sees the field's AprilTags from the robot's
+ * true pose and publishes results with the configured frame rate, latency and
+ * pixel noise, the same way a coprocessor would.
+ *
+ * <p>
+ * The results are read back by an ordinary {@link VisionIO_Hardware}, so the
+ * pose estimators, vision threads and fusion all run exactly as they do on the
+ * robot.
+ */
+public class VisionIO_Sim implements VisionIO {
+  private final Supplier<Pose2d> truePose;
+  private final VisionSystemSim visionSim = new VisionSystemSim("main");
+  private final VisionIO_Hardware hardware;
+
+  /**
+   * @param truePose Where the robot really is, not where it thinks it is.
+   */
+  public VisionIO_Sim(Supplier<Pose2d> truePose) {
+    this(truePose, getDefaultCameraProperties());
+  }
+
+  /**
+   * @param truePose   Where the robot really is, not where it thinks it is.
+   * @param properties Resolution, frame rate, latency and noise for every
+   *                   camera.
+   */
+  public VisionIO_Sim(Supplier<Pose2d> truePose, SimCameraProperties properties) {
+    this.truePose = truePose;
+    visionSim.addAprilTags(VisionConstants.KFIELDLAYOUT);
+    for (int i = 0; i < VisionConstants.CAMERA_NAMES.length; i++) {
+      // shares its NetworkTables topics with the estimator's camera of the
+      // same name
+      PhotonCameraSim cameraSim = new PhotonCameraSim(new PhotonCamera(VisionConstants.CAMERA_NAMES[i]),
+          properties);
+      // drawing the video streams is slow and nothing needs them
+      cameraSim.enableRawStream(false);
+      cameraSim.enableProcessedStream(false);
+      cameraSim.enableDrawWireframe(false);
+      visionSim.addCamera(cameraSim, VisionConstants.ROBOT_TO_CAMS[i]);
+    }
+    hardware = new VisionIO_Hardware();
+  }
+
+  public static SimCameraProperties getDefaultCameraProperties() {
+    SimCameraProperties properties = new SimCameraProperties();
+    properties.setCalibration(SimConstants.CAMERA_WIDTH_PIXELS, SimConstants.CAMERA_HEIGHT_PIXELS,
+        Rotation2d.fromDegrees(SimConstants.CAMERA_DIAGONAL_FOV_DEGREES));
+    properties.setCalibError(SimConstants.CAMERA_AVG_ERROR_PIXELS, SimConstants.CAMERA_ERROR_STD_DEV_PIXELS);
+    properties.setFPS(SimConstants.CAMERA_FPS);
+    properties.setAvgLatencyMs(SimConstants.CAMERA_AVG_LATENCY_MS);
+    properties.setLatencyStdDevMs(SimConstants.CAMERA_LATENCY_STD_DEV_MS);
+    return properties;
+  }
+
+  /**
+   * Lets the cameras see the field from the robot's true pose, then returns
+   * what the vision threads have estimated so far. Called once per loop.
+   */
+  public List<EstimatedRobotPose> getVisionPoses() {
+    visionSim.update(truePose.get());
+    return hardware.getVisionPoses();
+  }
+}
@@ -0,0 +1,90 @@
+package frc.robot.subsystems.drive;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.photonvision.EstimatedRobotPose;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import frc.robot.Constants.CodeConstants;
+
+/**
+ * Runs a pose estimator on its own thread so decoding camera results and
+ * solving PnP don't eat into the main loop.
+ *
+ * <p>
+ * Estimates are handed to the main loop through a lock-free queue that it
+ * empties with {@link #drain(Collection)}, so a camera running faster than the
+ * main loop doesn't lose frames. If the main loop stops draining, only the
+ * newest few estimates are kept. {@link EstimatedRobotPose} is immutable, so
+ * handing it across threads is safe.
+ */
+public class VisionThread {
+
+  // a few loops' worth of frames at any camera frame rate we'd run
+  private static final int MAX_QUEUED = 8;
+
+  private final Supplier<Optional<EstimatedRobotPose>> estimator;
+  private final Queue<EstimatedRobotPose> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final Notifier notifier;
+
+  /**
+   * @param name      Thread name, for debugging.
+   * @param estimator Called on the vision thread. Should return an estimate
+   *                  only once per camera frame, like
+   *                  {@code PhotonPoseEstimator.update()} does.
+   */
+  public VisionThread(String name, Supplier<Optional<EstimatedRobotPose>> estimator) {
+    this.estimator = estimator;
+    notifier = new Notifier(this::update);
+    notifier.setName(name);
+  }
+
+  public void start() {
+    notifier.startPeriodic(1.0 / CodeConstants.kVisionFrequency);
+  }
+
+  public void stop() {
+    notifier.stop();
+  }
+
+  private void update() {
+    try {
+      estimator.get().ifPresent(this::publish);
+    } catch (RuntimeException e) {
+      // an exception would kill the thread and leave us without vision for
+      // the rest of the match
+      DriverStation.reportError("Vision thread: " + e, e.getStackTrace());
+    }
+  }
+
+  private void publish(EstimatedRobotPose pose) {
+    queue.offer(pose);
+    if (queued.incrementAndGet() > MAX_QUEUED && queue.poll() != null) {
+      queued.decrementAndGet();
+    }
+  }
+
+  /**
+   * Moves every estimate the main loop hasn't seen yet into {@code out},
+   * oldest first. Never blocks.
+   *
+   * @return The number of estimates added.
+   */
+  public int drain(Collection<? super EstimatedRobotPose> out) {
+    int count = 0;
+    EstimatedRobotPose pose;
+    while ((pose = queue.poll()) != null) {
+      queued.decrementAndGet();
+      out.add(pose);
+      count++;
+    }
+    return count;
+  }
+}
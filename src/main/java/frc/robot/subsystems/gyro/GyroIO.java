@@ -13,8 +13,7 @@ public interface GyroIO {
 
   public static class GyroIOInputs {
     public double yawPositionRad = 0.0;
-
-   
+    public double yawVelocityRadPerSec = 0.0;
   }
   public double getYaw();
   public void setYaw(double yaw);
@@ -7,6 +7,8 @@
 
 package frc.robot.subsystems.gyro;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.hardware.Pigeon2;
 
 import edu.wpi.first.math.util.Units;
@@ -15,24 +17,33 @@ import frc.robot.Constants;
 /** IO implementation for Pigeon2 */
 public class GyroIOPigeon2 implements GyroIO {
   private final Pigeon2 pigeon;
+  private final StatusSignal<Double> yaw;
+  private final StatusSignal<Double> yawVelocity;
 
   public GyroIOPigeon2() {
 
     pigeon = new Pigeon2(Constants.DriveConstants.kGyroCanId, "rio");
+    yaw = pigeon.getYaw();
+    yawVelocity = pigeon.getAngularVelocityZWorld();
+    // the odometry thread samples yaw at this rate
+    yaw.setUpdateFrequency(Constants.CodeConstants.kOdometryFrequency);
     this.setYaw(0.0);
     
   }
 
-  public double getYaw() {
-    return Units.degreesToRadians(pigeon.getYaw().getValue());
+  // read from both the main loop and the odometry thread
+  public synchronized double getYaw() {
+    return Units.degreesToRadians(yaw.refresh().getValue());
   }
 
   public void setYaw(double yaw) {
     pigeon.setYaw(Units.radiansToDegrees(yaw));
   }
 
-  public void updateInputs(GyroIOInputs inputs) {
-    inputs.yawPositionRad = pigeon.getYaw().getValue();
-
+  public synchronized void updateInputs(GyroIOInputs inputs) {
+    // one refresh for both signals
+    BaseStatusSignal.refreshAll(yaw, yawVelocity);
+    inputs.yawPositionRad = Units.degreesToRadians(yaw.getValue());
+    inputs.yawVelocityRadPerSec = Units.degreesToRadians(yawVelocity.getValue());
   }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package frc.robot.subsystems.gyro;
+
+/**
+ * Stands in for the Pigeon when replaying a log. The drivetrain fills the
+ * inputs in from the log, so this only hands them back.
+ */
+public class GyroIOReplay implements GyroIO {
+    private GyroIOInputs inputs = new GyroIOInputs();
+
+    public double getYaw() {
+        return inputs.yawPositionRad;
+    }
+
+    public void setYaw(double yaw) {
+    }
+
+    public void updateInputs(GyroIOInputs inputs) {
+        this.inputs = inputs;
+    }
+}
@@ -1,7 +1,11 @@
 package frc.robot.subsystems.gyro;
 
+import frc.utils.DeltaTimer;
+
 public class GyroIOSim implements GyroIO {
-    private double yaw = 0; 
+    private volatile double yaw = 0; 
+    private double lastYaw = 0;
+    private final DeltaTimer deltaTimer = new DeltaTimer();
 
     public double getYaw(){
         return yaw;
@@ -10,8 +14,10 @@ public class GyroIOSim implements GyroIO {
         this.yaw = yaw;
     }
     public void updateInputs(GyroIOInputs inputs){
-        return ;
-
+        inputs.yawPositionRad = yaw;
+        double dt = deltaTimer.get();
+        inputs.yawVelocityRadPerSec = dt > 0 ? (yaw - lastYaw) / dt : 0;
+        lastYaw = yaw;
     }
 }
 
@@ -4,12 +4,22 @@
 
 package frc.robot.subsystems.intake;
 
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.subsystems.intake.IntakeIO.IntakeIOInputs;
+import frc.utils.LoggedInputs;
+import frc.utils.LoopProfiler;
+import frc.utils.Telemetry;
+import frc.utils.Telemetry.Tier;
 
 public class Intake extends SubsystemBase {
+  private final Telemetry.Group telemetry = Telemetry.group("intake", Tier.DIAGNOSTIC);
+  private final Telemetry.DoubleEntry speedEntry = telemetry.addDouble(" intake speed");
+
+  private final LoopProfiler.Section profile = LoopProfiler.section("Intake");
 
   private IntakeIO intakeIO;
+  private final IntakeIOInputs inputs = new IntakeIOInputs();
+  private final LoggedInputs loggedInputs = new LoggedInputs("Intake", inputs);
   public static boolean isIntooked = false;
 
   /** Creates a new Intake. */
@@ -23,11 +33,11 @@ public class Intake extends SubsystemBase {
 
   //returns speed of the intake
   public double getLeftEncoderSpeed() {
-    return intakeIO.getLeftEncoderSpeed();
+    return inputs.leftVelocity;
   }
 
   public double getRightEncoderSpeed() {
-    return intakeIO.getRightEncoderSpeed();
+    return inputs.rightVelocity;
   }
 
   public void setLeftCurrentLimit(int current) {
@@ -40,8 +50,11 @@ public class Intake extends SubsystemBase {
 
   @Override
   public void periodic() {
+    profile.start();
+    intakeIO.updateInputs(inputs);
+    loggedInputs.update();
     intakeIO.periodicUpdate();
-    SmartDashboard.putNumber("intake/ intake speed", getLeftEncoderSpeed());
-
+    speedEntry.set(getLeftEncoderSpeed());
+    profile.stop();
   }
 }
@@ -1,6 +1,21 @@
 package frc.robot.subsystems.intake;
 
 public interface IntakeIO {
+    public static class IntakeIOInputs {
+        // no positions: their status frame is turned off, see StatusFrames.VELOCITY_ONLY
+        public double leftVelocity = 0.0;
+        public double rightVelocity = 0.0;
+    }
+
+    /**
+     * Reads every sensor value once. Called once per loop; the subsystem reads
+     * from the inputs instead of the hardware.
+     */
+    public default void updateInputs(IntakeIOInputs inputs) {
+        inputs.leftVelocity = getLeftEncoderSpeed();
+        inputs.rightVelocity = getRightEncoderSpeed();
+    }
+
     public void setMotor(double speed);
 
     public double getLeftEncoderSpeed();
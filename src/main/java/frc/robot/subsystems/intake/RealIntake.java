@@ -1,6 +1,5 @@
 package frc.robot.subsystems.intake;
 
-import com.revrobotics.CANSparkLowLevel;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.RelativeEncoder;
@@ -9,6 +8,7 @@ import com.revrobotics.SparkPIDController;
 import frc.robot.Constants;
 import frc.robot.Constants.IntakeConstants;
 import frc.utils.MotorUtil;
+import frc.utils.MotorUtil.StatusFrames;
 
 public class RealIntake implements IntakeIO {
 
@@ -26,40 +26,26 @@ public class RealIntake implements IntakeIO {
     public RealIntake()
     {
         leftCenteringIntakeMotorController = MotorUtil.createSparkMAX(IntakeConstants.LEFT_CENTERING_MOTOR_ID, MotorType.kBrushless, 
-            Constants.NEO550_CURRENT_LIMIT, true, true, slewRate);
+            Constants.NEO550_CURRENT_LIMIT, true, true, slewRate, StatusFrames.VELOCITY_ONLY);
         
         rightCenteringIntakeMotorController = MotorUtil.createSparkMAX(IntakeConstants.RIGHT_CENTERING_MOTOR_ID, MotorType.kBrushless, 
-            Constants.NEO550_CURRENT_LIMIT, false, true, slewRate);
+            Constants.NEO550_CURRENT_LIMIT, false, true, slewRate, StatusFrames.VELOCITY_ONLY);
 
         intakeMotorController = MotorUtil.createSparkMAX(IntakeConstants.INTAKE_CENTERING_ID, MotorType.kBrushless,
-        Constants.NEO550_CURRENT_LIMIT, false, true, slewRate);
+            MotorUtil.baseConfig(Constants.NEO550_CURRENT_LIMIT, false, true, slewRate)
+                .add("velocity conversion", 1/60.0, //convert to rps
+                    (spark, value) -> spark.getEncoder().setVelocityConversionFactor(value))
+                .add("feedback device", (spark, values) -> spark.getPIDController().setFeedbackDevice(spark.getEncoder()))
+                .add("ff", FEEDFORWARD, (spark, value) -> spark.getPIDController().setFF(value))
+                .add("p", PVALUE, (spark, value) -> spark.getPIDController().setP(value)),
+            StatusFrames.VELOCITY_ONLY);
 
         // initialize motor encoder
         leftCenteringIntakeEncoder = leftCenteringIntakeMotorController.getEncoder();
         rightCenteringIntakeEncoder = rightCenteringIntakeMotorController.getEncoder();
         intakeEncoder = intakeMotorController.getEncoder();
-        
-        intakeEncoder.setVelocityConversionFactor(1/60.0); //convert to rps
 
         intakePIDController = intakeMotorController.getPIDController();
-        intakePIDController.setFeedbackDevice(intakeEncoder);
-        
-        intakePIDController.setFF(FEEDFORWARD);
-        intakePIDController.setP(PVALUE);
-
-        leftCenteringIntakeMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus2, 32767);
-        leftCenteringIntakeMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus3, 32767);
-        leftCenteringIntakeMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus4, 32767);
-        leftCenteringIntakeMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus5, 32767);
-        leftCenteringIntakeMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus6, 32767);
-        leftCenteringIntakeMotorController.setPeriodicFramePeriod(CANSparkLowLevel.PeriodicFrame.kStatus2, 32767);
-
-        
-
-
-
-
-
     }
 
     @Override
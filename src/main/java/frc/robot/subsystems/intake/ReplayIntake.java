@@ -0,0 +1,52 @@
+package frc.robot.subsystems.intake;
+
+/**
+ * Stands in for the real intake when replaying a log. The inputs are filled in
+ * from the log, so every getter just returns them and outputs go nowhere.
+ * The encoder positions aren't logged, so they read 0.
+ */
+public class ReplayIntake implements IntakeIO {
+
+    private IntakeIOInputs inputs = new IntakeIOInputs();
+
+    @Override
+    public void updateInputs(IntakeIOInputs inputs) {
+        this.inputs = inputs;
+    }
+
+    @Override
+    public void setMotor(double speed) {
+    }
+
+    @Override
+    public double getLeftEncoderSpeed() {
+        return inputs.leftVelocity;
+    }
+
+    @Override
+    public double getRightEncoderSpeed() {
+        return inputs.rightVelocity;
+    }
+
+    @Override
+    public double getLeftEncoderPosition() {
+        return 0;
+    }
+
+    @Override
+    public double getRightEncoderPosition() {
+        return 0;
+    }
+
+    @Override
+    public void setLeftCurrentLimit(int current) {
+    }
+
+    @Override
+    public void setRightCurrentLimit(int current) {
+    }
+
+    @Override
+    public void periodicUpdate() {
+    }
+}
@@ -1,8 +1,11 @@
 package frc.robot.subsystems.intake;
 
 import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.simulation.DCMotorSim;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Constants.SimConstants;
+import frc.utils.DeltaTimer;
 import frc.utils.SimEncoder;
 
 public class SimIntake implements IntakeIO {
@@ -11,20 +14,25 @@ public class SimIntake implements IntakeIO {
     public static SimEncoder rightIntakeEncoderSim;
     private DCMotorSim leftIntakeMotorSim;
     private DCMotorSim rightIntakeMotorSim;
+    private final DeltaTimer deltaTimer = new DeltaTimer();
+    private double speed = 0;
 
     public SimIntake() {
         leftIntakeEncoderSim = new SimEncoder("left intake");
         rightIntakeEncoderSim = new SimEncoder("right intake");
-        leftIntakeMotorSim = new DCMotorSim(DCMotor.getNeo550(1), 1, 1);
-        rightIntakeMotorSim = new DCMotorSim(DCMotor.getNeo550(1), 1, 1);
-        SmartDashboard.putNumber("intakecurrent sim", 0);
-        SmartDashboard.putNumber("intake sim velocity", 0);
-
+        leftIntakeMotorSim = new DCMotorSim(DCMotor.getNeo550(1), SimConstants.INTAKE_GEARING,
+                SimConstants.FEED_ROLLER_MOI);
+        rightIntakeMotorSim = new DCMotorSim(DCMotor.getNeo550(1), SimConstants.INTAKE_GEARING,
+                SimConstants.FEED_ROLLER_MOI);
     }
 
     public void setMotor(double speed) {
-        leftIntakeMotorSim.setInput(speed);
-        //rightIntakeMotorSim.setInput(speed);
+        this.speed = speed;
+    }
+
+    /** How fast the rollers' surface is pulling a note in, in meters per second. */
+    public double getRollerSurfaceSpeed() {
+        return leftIntakeMotorSim.getAngularVelocityRadPerSec() * SimConstants.FEED_ROLLER_RADIUS;
     }
    
     public double getLeftCurrent() {
@@ -60,6 +68,20 @@ public class SimIntake implements IntakeIO {
     }
 
     public void periodicUpdate() {
+        double dt = deltaTimer.get();
+        double volts = speed * RobotController.getBatteryVoltage();
+        leftIntakeMotorSim.setInputVoltage(volts);
+        rightIntakeMotorSim.setInputVoltage(volts);
+        leftIntakeMotorSim.update(dt);
+        rightIntakeMotorSim.update(dt);
+        // same units as the SPARK MAX's encoder: motor rotations and RPM
+        leftIntakeEncoderSim.setDistance(leftIntakeMotorSim.getAngularPositionRotations()
+                * SimConstants.INTAKE_GEARING);
+        leftIntakeEncoderSim.setSpeed(leftIntakeMotorSim.getAngularVelocityRPM() * SimConstants.INTAKE_GEARING);
+        rightIntakeEncoderSim.setDistance(rightIntakeMotorSim.getAngularPositionRotations()
+                * SimConstants.INTAKE_GEARING);
+        rightIntakeEncoderSim.setSpeed(rightIntakeMotorSim.getAngularVelocityRPM() * SimConstants.INTAKE_GEARING);
+
         SmartDashboard.putNumber("intake/current (A)", getLeftCurrent());
         SmartDashboard.putNumber("intake/current (A)", getRightCurrent());
     }
@@ -1,65 +1,72 @@
 package frc.robot.subsystems.shooter;
 
-import com.revrobotics.CANSparkMax;
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.SparkPIDController;
 import com.revrobotics.CANSparkBase.ControlType;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Constants;
 import frc.robot.Constants.ShooterConstants;
+import frc.utils.CachedSparkMax;
 import frc.utils.MotorUtil;
+import frc.utils.MotorUtil.StatusFrames;
+import frc.utils.SparkConfig;
+import frc.utils.Telemetry;
+import frc.utils.Telemetry.Tier;
 
 public class RealShooter implements ShooterIO {
+    private final Telemetry.Group telemetry = Telemetry.group("Shooter", Tier.DIAGNOSTIC);
+    private final Telemetry.DoubleEntry goalSpeedEntry = telemetry.addDouble("shooter goal speed");
+    private final Telemetry.DoubleEntry speedEntry = telemetry.addDouble("shooter speed");
 
-    public static CANSparkMax shooterMotorControllerLow;
-    public static CANSparkMax shooterMotorControllerHigh;
+    public static CachedSparkMax shooterMotorControllerLow;
+    public static CachedSparkMax shooterMotorControllerHigh;
     public static RelativeEncoder shooterLowEncoder;
     public static RelativeEncoder shooterHighEncoder;
     public static SparkPIDController shooterHighController;
     public static SparkPIDController shooterLowController;
 
-    public double feedforward = 0.011;
-    public double pvalue = 0.01;
+    public double feedforward = ShooterConstants.VELOCITY_FF;
+    public double pvalue = ShooterConstants.VELOCITY_P;
     private double slewRate = 0;
 
     public RealShooter()
     {
         shooterMotorControllerLow = MotorUtil.createSparkMAX(ShooterConstants.SHOOT_LOW_MOTOR_ID, MotorType.kBrushless, 
-            Constants.NEO_CURRENT_LIMIT, true, true, slewRate);
+            rollerConfig(), StatusFrames.VELOCITY_ONLY);
         
         shooterMotorControllerHigh = MotorUtil.createSparkMAX(ShooterConstants.SHOOT_HIGH_MOTOR_ID, MotorType.kBrushless, 
-            Constants.NEO_CURRENT_LIMIT, true, true, slewRate);
+            rollerConfig(), StatusFrames.VELOCITY_ONLY);
 
         // initialize motor encoder
         shooterLowEncoder = shooterMotorControllerLow.getEncoder();
         shooterHighEncoder = shooterMotorControllerHigh.getEncoder();
-        //TODO put in constants
-        shooterHighEncoder.setVelocityConversionFactor(1/60.0); //convert to rps
-        shooterLowEncoder.setVelocityConversionFactor(1/60.0); //convert to rps
 
-        //initialize PID controllers, set feedback device
+        //initialize PID controllers
         shooterHighController = shooterMotorControllerHigh.getPIDController();
         shooterLowController = shooterMotorControllerLow.getPIDController();
-        shooterHighController.setFeedbackDevice(shooterHighEncoder);
-        shooterLowController.setFeedbackDevice(shooterLowEncoder);
-        //shooter cannot go backwards
-        shooterHighController.setOutputRange(0, 1);
-        shooterLowController.setOutputRange(0, 1);
-        //set gains for PID controllers
-        shooterHighController.setFF(feedforward);
-        shooterHighController.setP(pvalue);
-        shooterLowController.setFF(feedforward);
-        shooterLowController.setP(pvalue);
+    }
+
+    // both rollers are set up the same
+    private SparkConfig rollerConfig() {
+        return MotorUtil.baseConfig(Constants.NEO_CURRENT_LIMIT, true, true, slewRate)
+            //TODO put in constants
+            .add("velocity conversion", 1/60.0, //convert to rps
+                (spark, value) -> spark.getEncoder().setVelocityConversionFactor(value))
+            .add("feedback device", (spark, values) -> spark.getPIDController().setFeedbackDevice(spark.getEncoder()))
+            //shooter cannot go backwards
+            .add("output range", (spark, values) -> spark.getPIDController().setOutputRange(values[0], values[1]), 0, 1)
+            //set gains for PID controllers
+            .add("ff", feedforward, (spark, value) -> spark.getPIDController().setFF(value))
+            .add("p", pvalue, (spark, value) -> spark.getPIDController().setP(value));
     }
 
     //Basic shooting command
     @Override
     public void setMotor(double shootSpeed) {
-        shooterHighController.setReference(shootSpeed * ShooterConstants.SHOOT_MAX_SPEED_RPS, ControlType.kVelocity);
-        shooterLowController.setReference(shootSpeed * ShooterConstants.SHOOT_MAX_SPEED_RPS, ControlType.kVelocity);   
-        SmartDashboard.putNumber("Shooter/shooter goal speed", shootSpeed * ShooterConstants.SHOOT_MAX_SPEED_RPS);
+        shooterMotorControllerHigh.setReference(shootSpeed * ShooterConstants.SHOOT_MAX_SPEED_RPS, ControlType.kVelocity);
+        shooterMotorControllerLow.setReference(shootSpeed * ShooterConstants.SHOOT_MAX_SPEED_RPS, ControlType.kVelocity);
+        goalSpeedEntry.set(shootSpeed * ShooterConstants.SHOOT_MAX_SPEED_RPS);
     }
 
     public double getCurrent()
@@ -79,7 +86,7 @@ public class RealShooter implements ShooterIO {
 
     @Override
     public void periodicUpdate() {  
-        SmartDashboard.putNumber("Shooter/shooter speed", getEncoderSpeed());
+        speedEntry.set(getEncoderSpeed());
     }
 
 }
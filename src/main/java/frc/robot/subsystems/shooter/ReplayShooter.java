@@ -0,0 +1,37 @@
+package frc.robot.subsystems.shooter;
+
+/**
+ * Stands in for the real shooter when replaying a log. The inputs are filled
+ * in from the log, so every getter just returns them and outputs go nowhere.
+ */
+public class ReplayShooter implements ShooterIO {
+
+    private ShooterIOInputs inputs = new ShooterIOInputs();
+
+    @Override
+    public void updateInputs(ShooterIOInputs inputs) {
+        this.inputs = inputs;
+    }
+
+    @Override
+    public void setMotor(double speed) {
+    }
+
+    @Override
+    public double getCurrent() {
+        return inputs.currentAmps;
+    }
+
+    @Override
+    public double getEncoderSpeed() {
+        return inputs.velocity;
+    }
+
+    @Override
+    public void setCurrentLimit(int current) {
+    }
+
+    @Override
+    public void periodicUpdate() {
+    }
+}
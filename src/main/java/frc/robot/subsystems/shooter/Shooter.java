@@ -5,10 +5,16 @@
 package frc.robot.subsystems.shooter;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.subsystems.shooter.ShooterIO.ShooterIOInputs;
+import frc.utils.LoggedInputs;
+import frc.utils.LoopProfiler;
 
 public class Shooter extends SubsystemBase {
+  private final LoopProfiler.Section profile = LoopProfiler.section("Shooter");
 
   private ShooterIO shooterIO;
+  private final ShooterIOInputs inputs = new ShooterIOInputs();
+  private final LoggedInputs loggedInputs = new LoggedInputs("Shooter", inputs);
   public static boolean isIntooked = false;
 
   /** Creates a new Intake. */
@@ -21,12 +27,12 @@ public class Shooter extends SubsystemBase {
   }
 
   public double getCurrent() {
-    return shooterIO.getCurrent();
+    return inputs.currentAmps;
   }
 
   // returns speed of the intake
   public double getEncoderSpeed() {
-    return shooterIO.getEncoderSpeed();
+    return inputs.velocity;
   }
 
   public void setCurrentLimit(int current) {
@@ -35,6 +41,10 @@ public class Shooter extends SubsystemBase {
 
   @Override
   public void periodic() {
+    profile.start();
+    shooterIO.updateInputs(inputs);
+    loggedInputs.update();
     shooterIO.periodicUpdate();
+    profile.stop();
   }
 }
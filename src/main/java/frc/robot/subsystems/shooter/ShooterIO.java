@@ -1,6 +1,20 @@
 package frc.robot.subsystems.shooter;
 
 public interface ShooterIO {
+    public static class ShooterIOInputs {
+        public double velocity = 0.0;
+        public double currentAmps = 0.0;
+    }
+
+    /**
+     * Reads every sensor value once. Called once per loop; the subsystem reads
+     * from the inputs instead of the hardware.
+     */
+    public default void updateInputs(ShooterIOInputs inputs) {
+        inputs.velocity = getEncoderSpeed();
+        inputs.currentAmps = getCurrent();
+    }
+
     public void setMotor(double speed);
 
     public double getCurrent();
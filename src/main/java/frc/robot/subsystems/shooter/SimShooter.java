@@ -1,39 +1,163 @@
 package frc.robot.subsystems.shooter;
 
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.LinearFilter;
 import edu.wpi.first.math.system.plant.DCMotor;
-import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import frc.utils.SimEncoder;
+import frc.robot.Constants;
+import frc.robot.Constants.ShooterConstants;
+import frc.utils.DeltaTimer;
 
+/**
+ * Simulates the high and low rollers the way {@link RealShooter} runs them:
+ * one NEO each, driven by the SPARK MAX's own 1 kHz velocity loop with its
+ * feedforward, P gain, output range and current limit, reading the same
+ * filtered velocity the SPARK sees. A note passing through takes energy out
+ * of both rollers, so spin-up time and recovery between shots can be measured
+ * without a robot.
+ */
 public class SimShooter implements ShooterIO {
 
-    public static SimEncoder shooterEncoderSim;
-    private DCMotorSim shooterMotorSim;
+    // the SPARK MAX runs its velocity loop every millisecond
+    private static final double CONTROL_PERIOD = 0.001;
+    // the NEO's built in encoder averages velocity over about 32 ms
+    private static final int VELOCITY_FILTER_TAPS = 32;
+    // how close to the goal counts as up to speed, as a fraction of the goal
+    private static final double AT_SPEED_TOLERANCE = 0.05;
 
-    public SimShooter() {
-        shooterEncoderSim = new SimEncoder("shooter");
-        shooterMotorSim = new DCMotorSim(DCMotor.getNeo550(1), 1, 1);
-        SmartDashboard.putNumber("shooter current sim", 0);
-        SmartDashboard.putNumber("shooter sim velocity", 0);
+    /** One roller with its motor and motor controller. */
+    private static class Roller {
+        private final DCMotor motor = DCMotor.getNEO(1);
+        private final FlywheelSim sim = new FlywheelSim(motor, 1, ShooterConstants.ROLLER_MOI);
+        private final LinearFilter velocityFilter = LinearFilter.movingAverage(VELOCITY_FILTER_TAPS);
+        private double measuredVelocityRPS = 0;
+        private double currentLimit = Constants.NEO_CURRENT_LIMIT;
+        private double appliedVolts = 0;
+
+        /** Runs one cycle of the SPARK's velocity loop and the physics. */
+        void step(double goalRPS, double loadTorque, double batteryVolts) {
+            double output = ShooterConstants.VELOCITY_FF * goalRPS
+                    + ShooterConstants.VELOCITY_P * (goalRPS - measuredVelocityRPS);
+            // shooter cannot go backwards
+            appliedVolts = MathUtil.clamp(output, 0, 1) * batteryVolts;
+
+            // the smart current limit holds the stator current under the limit
+            double backEmf = sim.getAngularVelocityRadPerSec() / motor.KvRadPerSecPerVolt;
+            double maxVolts = currentLimit * motor.rOhms;
+            appliedVolts = MathUtil.clamp(appliedVolts, backEmf - maxVolts, backEmf + maxVolts);
+
+            // a load torque slows the roller the same as this much less voltage
+            double loadVolts = loadTorque * motor.rOhms / motor.KtNMPerAmp;
+            sim.setInputVoltage(appliedVolts - loadVolts);
+            sim.update(CONTROL_PERIOD);
+            measuredVelocityRPS = velocityFilter.calculate(sim.getAngularVelocityRPM() / 60);
+        }
+
+        double getVelocityRadPerSec() {
+            return sim.getAngularVelocityRadPerSec();
+        }
+
+        double getCurrent() {
+            return motor.getCurrent(sim.getAngularVelocityRadPerSec(), appliedVolts);
+        }
     }
 
+    private final Roller highRoller = new Roller();
+    private final Roller lowRoller = new Roller();
+    private final DeltaTimer deltaTimer = new DeltaTimer();
+
+    private double goalRPS = 0;
+    // energy each roller still has to give the note in contact with it
+    private double noteEnergyLeft = 0;
+    private double noteContactTimeLeft = 0;
+
+    // for timing spin up and recovery after a shot
+    private double spinUpStartTime = Double.NaN;
+    private double shotTime = Double.NaN;
+
     public void setMotor(double speed) {
-        shooterMotorSim.setInput(speed);
+        double newGoal = speed * ShooterConstants.SHOOT_MAX_SPEED_RPS;
+        if (goalRPS <= 0 && newGoal > 0) {
+            spinUpStartTime = Timer.getFPGATimestamp();
+        }
+        goalRPS = newGoal;
+        SmartDashboard.putNumber("Shooter/shooter goal speed", goalRPS);
+    }
+
+    /**
+     * Starts squeezing a note between the rollers. It leaves at about half the
+     * rollers' surface speed, and the rollers pay for its kinetic energy plus
+     * what's lost crushing it.
+     */
+    public void startNoteContact() {
+        double surfaceSpeed = highRoller.getVelocityRadPerSec() * ShooterConstants.ROLLER_RADIUS;
+        double noteSpeed = surfaceSpeed / 2;
+        double noteEnergy = 0.5 * ShooterConstants.NOTE_MASS * noteSpeed * noteSpeed;
+        noteEnergyLeft = noteEnergy / ShooterConstants.NOTE_LAUNCH_EFFICIENCY / 2;
+        noteContactTimeLeft = ShooterConstants.NOTE_CONTACT_TIME;
+        shotTime = Timer.getFPGATimestamp();
+        SmartDashboard.putNumber("Shooter/sim/shot speed (mps)", noteSpeed);
     }
 
     public double getCurrent() {
-        return SmartDashboard.getNumber("shooter current sim", -100);
+        return highRoller.getCurrent();
     }
 
     public double getEncoderSpeed() {
-        return SmartDashboard.getNumber("shooter sim velocity", -100);
+        return highRoller.measuredVelocityRPS;
     }
 
     public void setCurrentLimit(int current) {
-        SmartDashboard.getNumber("shooter current sim", current);
+        // RealShooter only limits the high motor
+        highRoller.currentLimit = current;
+    }
+
+    private void simulate(double dt) {
+        double batteryVolts = RobotController.getBatteryVoltage();
+        int steps = Math.max(1, (int) Math.round(dt / CONTROL_PERIOD));
+        for (int i = 0; i < steps; i++) {
+            double highLoad = 0;
+            double lowLoad = 0;
+            if (noteContactTimeLeft > 0) {
+                // take the note's energy out evenly over the contact time
+                double power = noteEnergyLeft / noteContactTimeLeft;
+                highLoad = getLoadTorque(power, highRoller.getVelocityRadPerSec());
+                lowLoad = getLoadTorque(power, lowRoller.getVelocityRadPerSec());
+                noteEnergyLeft -= power * CONTROL_PERIOD;
+                noteContactTimeLeft -= CONTROL_PERIOD;
+            }
+            highRoller.step(goalRPS, highLoad, batteryVolts);
+            lowRoller.step(goalRPS, lowLoad, batteryVolts);
+        }
+    }
+
+    // a stopped roller just holds the note, it doesn't push it backwards
+    private static double getLoadTorque(double power, double velocityRadPerSec) {
+        return velocityRadPerSec > 1 ? power / velocityRadPerSec : 0;
+    }
+
+    private boolean isAtSpeed() {
+        return goalRPS > 0 && Math.abs(getEncoderSpeed() - goalRPS) <= AT_SPEED_TOLERANCE * goalRPS;
     }
 
     public void periodicUpdate() {
-        SmartDashboard.putNumber("shooter/current (A)", getCurrent());
+        simulate(deltaTimer.get());
+
+        double now = Timer.getFPGATimestamp();
+        if (isAtSpeed() && !Double.isNaN(spinUpStartTime)) {
+            SmartDashboard.putNumber("Shooter/sim/spin up time (s)", now - spinUpStartTime);
+            spinUpStartTime = Double.NaN;
+        }
+        if (isAtSpeed() && noteContactTimeLeft <= 0 && !Double.isNaN(shotTime)) {
+            SmartDashboard.putNumber("Shooter/sim/recovery time (s)", now - shotTime);
+            shotTime = Double.NaN;
+        }
+
+        SmartDashboard.putNumber("Shooter/shooter speed", getEncoderSpeed());
+        SmartDashboard.putNumber("Shooter/sim/low roller speed", lowRoller.measuredVelocityRPS);
+        SmartDashboard.putNumber("shooter/current (A)", getCurrent() + lowRoller.getCurrent());
     }
 }
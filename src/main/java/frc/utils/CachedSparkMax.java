@@ -0,0 +1,110 @@
+package frc.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.revrobotics.CANSparkBase;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
+import com.revrobotics.SparkPIDController;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.utils.Telemetry.Tier;
+
+/**
+ * A SPARK MAX that only sends a setpoint or current limit over CAN when it
+ * changes. Commands that set the same output every loop, like default commands
+ * holding a motor at zero, cost nothing on the bus. The setpoint is still sent
+ * again every {@link #KEEP_ALIVE_PERIOD} in case the controller rebooted and
+ * lost it.
+ */
+public class CachedSparkMax extends CANSparkMax {
+
+    // resend an unchanged setpoint this often, in seconds
+    public static final double KEEP_ALIVE_PERIOD = 0.25;
+    // setpoints closer than this to the last one count as unchanged
+    private static final double TOLERANCE = 1e-4;
+
+    // motors are configured on several threads at boot, see ParallelInit
+    private static final AtomicLong sentFrames = new AtomicLong();
+    private static final AtomicLong suppressedFrames = new AtomicLong();
+
+    // the counts change every loop, so they're only sent as diagnostics
+    private static final Telemetry.Group telemetry = Telemetry.group("CAN", Tier.DIAGNOSTIC);
+    private static final Telemetry.DoubleEntry sentEntry = telemetry.addDouble("SPARK writes sent");
+    private static final Telemetry.DoubleEntry suppressedEntry = telemetry.addDouble("SPARK writes suppressed");
+
+    private final SparkPIDController pidController;
+
+    private double lastValue = Double.NaN;
+    private CANSparkBase.ControlType lastControlType = null;
+    private double lastSendTime = 0;
+    private int lastCurrentLimit = -1;
+
+    public CachedSparkMax(int deviceId, MotorType type) {
+        super(deviceId, type);
+        pidController = getPIDController();
+    }
+
+    private boolean shouldSend(double value, CANSparkBase.ControlType controlType) {
+        double now = Timer.getFPGATimestamp();
+        if (controlType == lastControlType && Math.abs(value - lastValue) <= TOLERANCE
+                && now - lastSendTime < KEEP_ALIVE_PERIOD) {
+            suppressedFrames.incrementAndGet();
+            return false;
+        }
+        lastValue = value;
+        lastControlType = controlType;
+        lastSendTime = now;
+        sentFrames.incrementAndGet();
+        return true;
+    }
+
+    /** Sets the duty cycle, if it changed. */
+    @Override
+    public void set(double speed) {
+        if (shouldSend(speed, CANSparkBase.ControlType.kDutyCycle)) {
+            super.set(speed);
+        }
+    }
+
+    /**
+     * Sets the closed loop setpoint, if it or the control type changed. Use this
+     * instead of the PID controller's setReference() so the write is cached.
+     */
+    public REVLibError setReference(double value, CANSparkBase.ControlType controlType) {
+        if (shouldSend(value, controlType)) {
+            return pidController.setReference(value, controlType);
+        }
+        return REVLibError.kOk;
+    }
+
+    /** Sets the smart current limit, if it changed. */
+    @Override
+    public REVLibError setSmartCurrentLimit(int limit) {
+        if (limit == lastCurrentLimit) {
+            suppressedFrames.incrementAndGet();
+            return REVLibError.kOk;
+        }
+        REVLibError error = super.setSmartCurrentLimit(limit);
+        if (error == REVLibError.kOk) {
+            lastCurrentLimit = limit;
+        }
+        sentFrames.incrementAndGet();
+        return error;
+    }
+
+    /** Forgets the last setpoint, so the next one is always sent. */
+    public void invalidate() {
+        lastControlType = null;
+        lastValue = Double.NaN;
+    }
+
+    /**
+     * Updates how many writes every cached SPARK MAX has sent and skipped. Call
+     * before {@link Telemetry#flush()}.
+     */
+    public static void publishTelemetry() {
+        sentEntry.set(sentFrames.get());
+        suppressedEntry.set(suppressedFrames.get());
+    }
+}
@@ -0,0 +1,247 @@
+package frc.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.IntegerArrayLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+/**
+ * Records every time the scheduler starts, interrupts or finishes a command,
+ * without building a string or touching the log file on the main thread.
+ *
+ * <p>
+ * Command and subsystem names are given small integer IDs the first time
+ * they're seen and logged once, under /Events/commands and /Events/subsystems
+ * as "id name". Commands that share a name, like every unnamed RunCommand,
+ * share an ID and their run times are counted together. Each transition is then a fixed-width
+ * record in a preallocated {@link SampleRingBuffer}, which a writer thread
+ * empties into /Events/command as {@code [type, command ID, requirements
+ * bitmask, duration in microseconds]}, stamped with the time it happened. The
+ * writer also keeps a histogram of each command's run time and logs
+ * {@code [runs, interrupted, mean, p50, p99, max]} in seconds under
+ * /Events/duration/&lt;name&gt; whenever one ends.
+ *
+ * <p>
+ * If the writer falls a whole buffer behind, the oldest events are dropped
+ * and counted in /Events/dropped.
+ */
+public class CommandEventLog {
+
+    public static final int INITIALIZED = 0;
+    public static final int INTERRUPTED = 1;
+    public static final int FINISHED = 2;
+
+    // a few seconds of every button being mashed
+    private static final int BUFFER_CAPACITY = 256;
+    private static final double WRITE_PERIOD_SECONDS = 0.1;
+    // the requirements bitmask goes through a double, which holds 53 bits
+    private static final int MAX_SUBSYSTEMS = 53;
+
+    private static final int TIMESTAMP = 0;
+    private static final int TYPE = 1;
+    private static final int COMMAND = 2;
+    private static final int REQUIREMENTS = 3;
+    private static final int DURATION = 4;
+    private static final int WIDTH = 5;
+
+    private static final SampleRingBuffer buffer = new SampleRingBuffer(BUFFER_CAPACITY, WIDTH);
+    // names are only handed to the writer the first time they're seen
+    private static final Queue<String> newCommandNames = new ConcurrentLinkedQueue<>();
+    private static final Queue<String> newSubsystemNames = new ConcurrentLinkedQueue<>();
+
+    // main thread only
+    private static final Map<String, Integer> commandIds = new HashMap<>();
+    private static final Map<Subsystem, Integer> subsystemIds = new IdentityHashMap<>();
+    // each command instance gets a slot, so getName() and getRequirements()
+    // are only called the first time it's seen, and two instances with the
+    // same name can run at once without mixing up their start times
+    private static final Map<Command, Integer> slots = new IdentityHashMap<>();
+    private static int[] slotIds = new int[64];
+    private static long[] requirements = new long[64];
+    private static long[] startTimes = new long[64];
+    private static final double[] event = new double[WIDTH];
+
+    private static Writer writer = null;
+
+    /** Everything the writer thread owns. */
+    private static class Writer {
+        private final DataLog log;
+        private final IntegerArrayLogEntry eventEntry;
+        private final StringLogEntry commandNamesEntry;
+        private final StringLogEntry subsystemNamesEntry;
+        private final IntegerLogEntry droppedEntry;
+        private final List<String> commandNames = new ArrayList<>();
+        private final List<CommandStats> stats = new ArrayList<>();
+        private final double[] record = new double[WIDTH];
+        private final long[] value = new long[WIDTH - 1];
+        private final Notifier notifier = new Notifier(this::write);
+        private int subsystemCount = 0;
+        private long dropped = 0;
+
+        private Writer(DataLog log) {
+            this.log = log;
+            eventEntry = new IntegerArrayLogEntry(log, "/Events/command");
+            commandNamesEntry = new StringLogEntry(log, "/Events/commands");
+            subsystemNamesEntry = new StringLogEntry(log, "/Events/subsystems");
+            droppedEntry = new IntegerLogEntry(log, "/Events/dropped");
+            notifier.setName("Event log");
+        }
+
+        private void write() {
+            String name;
+            while ((name = newSubsystemNames.poll()) != null) {
+                subsystemNamesEntry.append(subsystemCount++ + " " + name);
+            }
+            while (buffer.read(record)) {
+                int id = (int) record[COMMAND];
+                // the name was queued before the event, so it's there by now
+                while (id >= commandNames.size()) {
+                    name = newCommandNames.poll();
+                    commandNamesEntry.append(commandNames.size() + " " + name);
+                    stats.add(new CommandStats(log, name));
+                    commandNames.add(name);
+                }
+
+                long timestamp = (long) record[TIMESTAMP];
+                value[0] = (long) record[TYPE];
+                value[1] = id;
+                value[2] = (long) record[REQUIREMENTS];
+                value[3] = (long) record[DURATION];
+                eventEntry.append(value, timestamp);
+                if (value[0] != INITIALIZED) {
+                    stats.get(id).record(value[3], value[0] == INTERRUPTED, timestamp);
+                }
+            }
+            if (buffer.getDroppedRecords() != dropped) {
+                dropped = buffer.getDroppedRecords();
+                droppedEntry.append(dropped);
+            }
+        }
+    }
+
+    /** How long one command has run for, every time it's run. */
+    private static class CommandStats {
+        private final DoubleArrayLogEntry entry;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final double[] value = new double[6];
+        private long interrupted = 0;
+        private long totalMicros = 0;
+
+        private CommandStats(DataLog log, String name) {
+            entry = new DoubleArrayLogEntry(log, "/Events/duration/" + name);
+        }
+
+        private void record(long micros, boolean wasInterrupted, long timestamp) {
+            // in microseconds rather than nanoseconds, so a default command that
+            // runs all match still fits
+            histogram.record(micros);
+            totalMicros += micros;
+            if (wasInterrupted) {
+                interrupted++;
+            }
+            long runs = histogram.getCount();
+            value[0] = runs;
+            value[1] = interrupted;
+            value[2] = totalMicros / 1e6 / runs;
+            value[3] = histogram.getValueAtPercentile(50) / 1e6;
+            value[4] = histogram.getValueAtPercentile(99) / 1e6;
+            value[5] = histogram.getMax() / 1e6;
+            entry.append(value, timestamp);
+        }
+    }
+
+    /**
+     * Logs the scheduler's commands to {@code log} from now on. Call once,
+     * after every subsystem is made.
+     */
+    public static void start(DataLog log, CommandScheduler scheduler) {
+        if (writer != null) {
+            return;
+        }
+        writer = new Writer(log);
+        scheduler.onCommandInitialize(command -> record(INITIALIZED, command));
+        scheduler.onCommandInterrupt(command -> record(INTERRUPTED, command));
+        scheduler.onCommandFinish(command -> record(FINISHED, command));
+        writer.notifier.startPeriodic(WRITE_PERIOD_SECONDS);
+    }
+
+    private static void record(int type, Command command) {
+        long now = RobotController.getFPGATime();
+        int slot = getSlot(command);
+        long duration = 0;
+        if (type == INITIALIZED) {
+            startTimes[slot] = now;
+        } else {
+            duration = now - startTimes[slot];
+        }
+        event[TIMESTAMP] = now;
+        event[TYPE] = type;
+        event[COMMAND] = slotIds[slot];
+        event[REQUIREMENTS] = requirements[slot];
+        event[DURATION] = duration;
+        buffer.write(event);
+    }
+
+    private static int getSlot(Command command) {
+        Integer slot = slots.get(command);
+        if (slot != null) {
+            return slot;
+        }
+        int newSlot = slots.size();
+        slots.put(command, newSlot);
+        if (newSlot == requirements.length) {
+            slotIds = Arrays.copyOf(slotIds, newSlot * 2);
+            requirements = Arrays.copyOf(requirements, newSlot * 2);
+            startTimes = Arrays.copyOf(startTimes, newSlot * 2);
+        }
+        // a command's requirements don't change once it's scheduled, so the
+        // set is only walked once
+        long mask = 0;
+        for (Subsystem subsystem : command.getRequirements()) {
+            int bit = getSubsystemId(subsystem);
+            if (bit < MAX_SUBSYSTEMS) {
+                mask |= 1L << bit;
+            }
+        }
+        requirements[newSlot] = mask;
+        slotIds[newSlot] = getCommandId(command.getName());
+        return newSlot;
+    }
+
+    private static int getCommandId(String name) {
+        Integer id = commandIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        int newId = commandIds.size();
+        commandIds.put(name, newId);
+        newCommandNames.offer(name);
+        return newId;
+    }
+
+    private static int getSubsystemId(Subsystem subsystem) {
+        Integer id = subsystemIds.get(subsystem);
+        if (id != null) {
+            return id;
+        }
+        int newId = subsystemIds.size();
+        subsystemIds.put(subsystem, newId);
+        newSubsystemNames.offer(subsystem.getName());
+        return newId;
+    }
+}
@@ -0,0 +1,29 @@
+package frc.utils;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.CodeConstants;
+
+/**
+ * Measures how much time passed between calls, using the FPGA clock. In
+ * simulation that clock is the simulated one, so sims stepped with it stay in
+ * step with the robot code whether they run in real time or as fast as the
+ * CPU allows.
+ */
+public class DeltaTimer {
+
+  // anything longer is a pause (breakpoint, paused sim), not a real loop
+  private static final double MAX_DT = 0.1;
+
+  private double lastTime = Double.NaN;
+
+  /**
+   * @return Seconds since the last call. The first call returns one nominal
+   *         loop period.
+   */
+  public double get() {
+    double now = Timer.getFPGATimestamp();
+    double dt = Double.isNaN(lastTime) ? 1.0 / CodeConstants.kMainLoopFrequency : now - lastTime;
+    lastTime = now;
+    return Math.min(Math.max(dt, 0), MAX_DT);
+  }
+}
@@ -0,0 +1,91 @@
+package frc.utils;
+
+import java.io.IOException;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Records every IO layer's inputs to a WPILOG each loop, or plays a recorded
+ * log back into them.
+ *
+ * <p>
+ * Each loop starts with {@link #startCycle()}, which logs the FPGA time, and
+ * then every {@link LoggedInputs} logs its fields. In replay the log is read
+ * back one loop at a time and {@link LoggedInputs#update()} overwrites the
+ * fields with what was recorded, so the subsystems see exactly what they saw
+ * on the robot.
+ *
+ * <p>
+ * Start logging or replay before any {@link LoggedInputs} is made. Main thread
+ * only.
+ */
+public class InputsLog {
+
+    public static final String PREFIX = "/Inputs/";
+    static final String TIMESTAMP_KEY = PREFIX + "timestamp";
+
+    private static DataLog log = null;
+    private static DoubleLogEntry timestampEntry = null;
+    private static ReplayLog replay = null;
+    private static int cycle = -1;
+
+    /** Logs every input to {@code log} from now on. */
+    public static void startLogging(DataLog log) {
+        InputsLog.log = log;
+        timestampEntry = new DoubleLogEntry(log, TIMESTAMP_KEY);
+    }
+
+    /** Reads every input from the WPILOG at {@code path} instead of the hardware. */
+    public static void startReplay(String path) throws IOException {
+        replay = new ReplayLog(path);
+    }
+
+    public static boolean isLogging() {
+        return log != null;
+    }
+
+    public static boolean isReplay() {
+        return replay != null;
+    }
+
+    static DataLog getLog() {
+        return log;
+    }
+
+    static ReplayLog getReplay() {
+        return replay;
+    }
+
+    /**
+     * Call at the start of every loop, before any inputs are updated. In replay
+     * this moves on to the next recorded loop.
+     *
+     * @return false once a replay has run out of recorded loops.
+     */
+    public static boolean startCycle() {
+        cycle++;
+        if (replay != null) {
+            return cycle < replay.getCycleCount();
+        }
+        if (log != null) {
+            timestampEntry.append(Timer.getFPGATimestamp());
+        }
+        return true;
+    }
+
+    static int getCycle() {
+        return cycle;
+    }
+
+    /** The FPGA time the current loop started at on the robot. Replay only. */
+    public static double getCycleTimestamp() {
+        return replay.getTimestamp(cycle);
+    }
+
+    /** The number of loops in the log being replayed. Replay only. */
+    public static int getCycleCount() {
+        return replay.getCycleCount();
+    }
+}
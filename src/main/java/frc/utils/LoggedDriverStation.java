@@ -0,0 +1,140 @@
+package frc.utils;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+
+/**
+ * Logs what the driver station sent each loop: the robot's mode, alliance and
+ * the joysticks on the given ports. In replay the logged values are pushed
+ * into the simulated driver station instead, so mode changes happen on the
+ * same loops and every trigger sees the same buttons.
+ */
+public class LoggedDriverStation {
+
+    public static class DriverStationInputs {
+        public boolean enabled = false;
+        public boolean autonomous = false;
+        public boolean test = false;
+        public boolean eStop = false;
+        public boolean fmsAttached = false;
+        public boolean dsAttached = false;
+        // 0 for none, then the Alliance ordinal plus one
+        public long alliance = 0;
+        public long location = 0;
+        public double matchTime = -1.0;
+    }
+
+    public static class JoystickInputs {
+        public double[] axes = new double[0];
+        public double[] povs = new double[0];
+        public long buttons = 0;
+        public long buttonCount = 0;
+    }
+
+    private static final Alliance[] ALLIANCES = Alliance.values();
+
+    private final DriverStationInputs inputs = new DriverStationInputs();
+    private final LoggedInputs loggedInputs = new LoggedInputs("DriverStation", inputs);
+    private final int[] ports;
+    private final JoystickInputs[] joysticks;
+    private final LoggedInputs[] loggedJoysticks;
+
+    /** @param ports The joystick ports the robot uses. */
+    public LoggedDriverStation(int... ports) {
+        this.ports = ports;
+        joysticks = new JoystickInputs[ports.length];
+        loggedJoysticks = new LoggedInputs[ports.length];
+        for (int i = 0; i < ports.length; i++) {
+            joysticks[i] = new JoystickInputs();
+            loggedJoysticks[i] = new LoggedInputs("DriverStation/Joystick" + ports[i], joysticks[i]);
+        }
+    }
+
+    /**
+     * When logging, call once per loop after the driver station data has been
+     * refreshed. In replay, call before it's refreshed.
+     */
+    public void update() {
+        if (InputsLog.isReplay()) {
+            replay();
+        } else if (InputsLog.isLogging()) {
+            log();
+        }
+    }
+
+    private void log() {
+        inputs.enabled = DriverStation.isEnabled();
+        inputs.autonomous = DriverStation.isAutonomous();
+        inputs.test = DriverStation.isTest();
+        inputs.eStop = DriverStation.isEStopped();
+        inputs.fmsAttached = DriverStation.isFMSAttached();
+        inputs.dsAttached = DriverStation.isDSAttached();
+        Optional<Alliance> alliance = DriverStation.getAlliance();
+        inputs.alliance = alliance.isPresent() ? alliance.get().ordinal() + 1 : 0;
+        OptionalInt location = DriverStation.getLocation();
+        inputs.location = location.isPresent() ? location.getAsInt() : 0;
+        inputs.matchTime = DriverStation.getMatchTime();
+        loggedInputs.update();
+
+        for (int i = 0; i < ports.length; i++) {
+            int port = ports[i];
+            JoystickInputs joystick = joysticks[i];
+            int axisCount = DriverStation.getStickAxisCount(port);
+            if (joystick.axes.length != axisCount) {
+                joystick.axes = new double[axisCount];
+            }
+            for (int axis = 0; axis < axisCount; axis++) {
+                joystick.axes[axis] = DriverStation.getStickAxis(port, axis);
+            }
+            int povCount = DriverStation.getStickPOVCount(port);
+            if (joystick.povs.length != povCount) {
+                joystick.povs = new double[povCount];
+            }
+            for (int pov = 0; pov < povCount; pov++) {
+                joystick.povs[pov] = DriverStation.getStickPOV(port, pov);
+            }
+            joystick.buttons = DriverStation.getStickButtons(port);
+            joystick.buttonCount = DriverStation.getStickButtonCount(port);
+            loggedJoysticks[i].update();
+        }
+    }
+
+    private void replay() {
+        loggedInputs.update();
+        DriverStationSim.setEnabled(inputs.enabled);
+        DriverStationSim.setAutonomous(inputs.autonomous);
+        DriverStationSim.setTest(inputs.test);
+        DriverStationSim.setEStop(inputs.eStop);
+        DriverStationSim.setFmsAttached(inputs.fmsAttached);
+        DriverStationSim.setDsAttached(inputs.dsAttached);
+        if (inputs.alliance > 0 && inputs.location > 0) {
+            DriverStationSim.setAllianceStationId(AllianceStationID
+                    .valueOf(ALLIANCES[(int) inputs.alliance - 1].name() + inputs.location));
+        } else {
+            DriverStationSim.setAllianceStationId(AllianceStationID.Unknown);
+        }
+        DriverStationSim.setMatchTime(inputs.matchTime);
+
+        for (int i = 0; i < ports.length; i++) {
+            int port = ports[i];
+            JoystickInputs joystick = joysticks[i];
+            loggedJoysticks[i].update();
+            DriverStationSim.setJoystickAxisCount(port, joystick.axes.length);
+            for (int axis = 0; axis < joystick.axes.length; axis++) {
+                DriverStationSim.setJoystickAxis(port, axis, joystick.axes[axis]);
+            }
+            DriverStationSim.setJoystickPOVCount(port, joystick.povs.length);
+            for (int pov = 0; pov < joystick.povs.length; pov++) {
+                DriverStationSim.setJoystickPOV(port, pov, (int) joystick.povs[pov]);
+            }
+            DriverStationSim.setJoystickButtons(port, (int) joystick.buttons);
+            DriverStationSim.setJoystickButtonCount(port, (int) joystick.buttonCount);
+        }
+        DriverStationSim.notifyNewData();
+    }
+}
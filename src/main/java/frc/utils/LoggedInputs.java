@@ -0,0 +1,164 @@
+package frc.utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+
+/**
+ * Binds the public fields of an IO layer's inputs object to the
+ * {@link InputsLog}, as /Inputs/&lt;name&gt;/&lt;field&gt;. Fields can be
+ * double, boolean, int, long or double[].
+ *
+ * <p>
+ * Call {@link #update()} right after the IO fills the inputs in. When logging
+ * it records every field; in replay it overwrites every field with what was
+ * recorded for the current loop. Otherwise it does nothing.
+ */
+public class LoggedInputs {
+
+    private static final int DOUBLE = 0;
+    private static final int BOOLEAN = 1;
+    private static final int INT = 2;
+    private static final int LONG = 3;
+    private static final int DOUBLE_ARRAY = 4;
+
+    private final Object inputs;
+    private final Field[] fields;
+    private final int[] types;
+    private final DoubleLogEntry[] doubleEntries;
+    private final BooleanLogEntry[] booleanEntries;
+    private final IntegerLogEntry[] integerEntries;
+    private final DoubleArrayLogEntry[] doubleArrayEntries;
+    private final ReplayLog.Cursor[] cursors;
+
+    public LoggedInputs(String name, Object inputs) {
+        this.inputs = inputs;
+
+        List<Field> publicFields = new ArrayList<>();
+        for (Field field : inputs.getClass().getFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                publicFields.add(field);
+            }
+        }
+        fields = publicFields.toArray(new Field[0]);
+        types = new int[fields.length];
+        doubleEntries = new DoubleLogEntry[fields.length];
+        booleanEntries = new BooleanLogEntry[fields.length];
+        integerEntries = new IntegerLogEntry[fields.length];
+        doubleArrayEntries = new DoubleArrayLogEntry[fields.length];
+        cursors = new ReplayLog.Cursor[fields.length];
+
+        DataLog log = InputsLog.getLog();
+        ReplayLog replay = InputsLog.getReplay();
+        for (int i = 0; i < fields.length; i++) {
+            Class<?> type = fields[i].getType();
+            if (type == double.class) {
+                types[i] = DOUBLE;
+            } else if (type == boolean.class) {
+                types[i] = BOOLEAN;
+            } else if (type == int.class) {
+                types[i] = INT;
+            } else if (type == long.class) {
+                types[i] = LONG;
+            } else if (type == double[].class) {
+                types[i] = DOUBLE_ARRAY;
+            } else {
+                throw new IllegalArgumentException(
+                        "Can't log " + inputs.getClass().getSimpleName() + "." + fields[i].getName() + " of type "
+                                + type.getSimpleName());
+            }
+
+            String key = InputsLog.PREFIX + name + "/" + fields[i].getName();
+            if (replay != null) {
+                // inputs added since the log was made keep whatever the IO sets
+                cursors[i] = replay.getCursor(key);
+            } else if (log != null) {
+                switch (types[i]) {
+                    case DOUBLE:
+                        doubleEntries[i] = new DoubleLogEntry(log, key);
+                        break;
+                    case BOOLEAN:
+                        booleanEntries[i] = new BooleanLogEntry(log, key);
+                        break;
+                    case INT:
+                    case LONG:
+                        integerEntries[i] = new IntegerLogEntry(log, key);
+                        break;
+                    default:
+                        doubleArrayEntries[i] = new DoubleArrayLogEntry(log, key);
+                        break;
+                }
+            }
+        }
+    }
+
+    public void update() {
+        try {
+            if (InputsLog.isReplay()) {
+                replay();
+            } else if (InputsLog.isLogging()) {
+                log();
+            }
+        } catch (IllegalAccessException e) {
+            // the fields are public, so this can't happen
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void log() throws IllegalAccessException {
+        for (int i = 0; i < fields.length; i++) {
+            switch (types[i]) {
+                case DOUBLE:
+                    doubleEntries[i].append(fields[i].getDouble(inputs));
+                    break;
+                case BOOLEAN:
+                    booleanEntries[i].append(fields[i].getBoolean(inputs));
+                    break;
+                case INT:
+                case LONG:
+                    integerEntries[i].append(fields[i].getLong(inputs));
+                    break;
+                default:
+                    doubleArrayEntries[i].append((double[]) fields[i].get(inputs));
+                    break;
+            }
+        }
+    }
+
+    private void replay() throws IllegalAccessException {
+        int cycle = InputsLog.getCycle();
+        for (int i = 0; i < fields.length; i++) {
+            if (cursors[i] == null) {
+                continue;
+            }
+            Object value = cursors[i].get(cycle);
+            if (value == null) {
+                continue;
+            }
+            switch (types[i]) {
+                case DOUBLE:
+                    fields[i].setDouble(inputs, (Double) value);
+                    break;
+                case BOOLEAN:
+                    fields[i].setBoolean(inputs, (Boolean) value);
+                    break;
+                case INT:
+                    fields[i].setInt(inputs, ((Long) value).intValue());
+                    break;
+                case LONG:
+                    fields[i].setLong(inputs, (Long) value);
+                    break;
+                default:
+                    fields[i].set(inputs, value);
+                    break;
+            }
+        }
+    }
+}
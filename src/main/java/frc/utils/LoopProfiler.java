@@ -0,0 +1,198 @@
+package frc.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.CodeConstants;
+import frc.utils.Telemetry.Tier;
+
+/**
+ * Times every subsystem's periodic() and every command's execute() into
+ * {@link LatencyHistogram}s, so a loop overrun can be pinned on whatever
+ * caused it. Once a second the p50, p99 and max of each are published under
+ * LoopProfiler/ in NetworkTables, which DataLogManager also records to the
+ * DataLog, and the histograms start over. They go out through diagnostic
+ * {@link Telemetry} groups, so they count against the telemetry budget.
+ *
+ * <p>
+ * Subsystems time themselves with a {@link Section}. Commands are timed by
+ * {@link #attach(CommandScheduler)}, which can only see the end of each
+ * execute(), so each command is charged the time since the previous one
+ * finished.
+ *
+ * <p>
+ * Main thread only.
+ */
+public class LoopProfiler {
+
+    private static final int PUBLISH_PERIOD_LOOPS = (int) CodeConstants.kMainLoopFrequency;
+    private static final long LOOP_PERIOD_NANOS = (long) (1e9 / CodeConstants.kMainLoopFrequency);
+    private static final String UNTIMED = "outside any section";
+
+    private static final NetworkTable table = NetworkTableInstance.getDefault().getTable("LoopProfiler");
+    private static final Telemetry.StringEntry worstOffenderEntry = Telemetry.group(table, Tier.DIAGNOSTIC)
+            .addString("worst offender");
+
+    private static final List<Section> sections = new ArrayList<>();
+    private static final Map<String, Section> commandSections = new HashMap<>();
+    private static final Section loop = new Section("loop");
+
+    private static long loopStart = 0;
+    private static long lastCommandEnd = 0;
+    private static int loopsSincePublish = 0;
+    private static long totalLoops = 0;
+    private static BiConsumer<String, Double> overrunHandler = (name, milliseconds) -> DataLogManager
+            .log("Loop overrun, worst offender " + name + " took " + milliseconds + " ms");
+
+    /** A piece of code timed once per loop. */
+    public static class Section {
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Telemetry.DoubleEntry p50Entry;
+        private final Telemetry.DoubleEntry p99Entry;
+        private final Telemetry.DoubleEntry maxEntry;
+        private long startTime = 0;
+        // time spent in this section during the current loop
+        private long loopNanos = 0;
+        // never reset, for printSummary()
+        private long totalNanos = 0;
+
+        private Section(String name) {
+            this.name = name;
+            Telemetry.Group telemetry = Telemetry.group(table.getSubTable(name), Tier.DIAGNOSTIC);
+            p50Entry = telemetry.addDouble("p50 (ms)");
+            p99Entry = telemetry.addDouble("p99 (ms)");
+            maxEntry = telemetry.addDouble("max (ms)");
+        }
+
+        public void start() {
+            startTime = System.nanoTime();
+        }
+
+        public void stop() {
+            record(System.nanoTime() - startTime);
+        }
+
+        private void record(long nanos) {
+            histogram.record(nanos);
+            loopNanos += nanos;
+            totalNanos += nanos;
+        }
+
+        private void publish() {
+            p50Entry.set(histogram.getValueAtPercentile(50) / 1e6);
+            p99Entry.set(histogram.getValueAtPercentile(99) / 1e6);
+            maxEntry.set(histogram.getMax() / 1e6);
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Makes a section to time with. Call once, when the subsystem is made, and
+     * keep it.
+     */
+    public static Section section(String name) {
+        Section section = new Section(name);
+        sections.add(section);
+        return section;
+    }
+
+    /**
+     * Times every command's execute(). Call after every trigger is bound, so
+     * the marker bound here is the last thing the button loop runs before the
+     * scheduler starts on commands.
+     */
+    public static void attach(CommandScheduler scheduler) {
+        scheduler.getDefaultButtonLoop().bind(() -> lastCommandEnd = System.nanoTime());
+        scheduler.onCommandExecute(command -> {
+            long now = System.nanoTime();
+            Section section = commandSections.get(command.getName());
+            if (section == null) {
+                section = section("commands/" + command.getName());
+                commandSections.put(command.getName(), section);
+            }
+            section.record(now - lastCommandEnd);
+            lastCommandEnd = now;
+        });
+    }
+
+    /** Called with the worst offender's name and time whenever the loop overruns. */
+    public static void setOverrunHandler(BiConsumer<String, Double> handler) {
+        overrunHandler = handler;
+    }
+
+    /**
+     * Call at the very start of the loop, before the mode functions run, so
+     * the loop is timed the same way TimedRobot's watchdog times it.
+     */
+    public static void startLoop() {
+        loopStart = System.nanoTime();
+    }
+
+    /** Call at the very end of the loop. */
+    public static void endLoop() {
+        long loopNanos = System.nanoTime() - loopStart;
+        loop.record(loopNanos);
+
+        if (loopNanos > LOOP_PERIOD_NANOS) {
+            Section worst = null;
+            long timedNanos = 0;
+            for (int i = 0; i < sections.size(); i++) {
+                Section section = sections.get(i);
+                timedNanos += section.loopNanos;
+                if (worst == null || section.loopNanos > worst.loopNanos) {
+                    worst = section;
+                }
+            }
+            // the mode functions and dashboard updates aren't sections, so
+            // blame them if they took longer than any section did
+            long untimedNanos = loopNanos - timedNanos;
+            if (worst == null || untimedNanos > worst.loopNanos) {
+                worstOffenderEntry.set(UNTIMED);
+                overrunHandler.accept(UNTIMED, untimedNanos / 1e6);
+            } else {
+                worstOffenderEntry.set(worst.name);
+                overrunHandler.accept(worst.name, worst.loopNanos / 1e6);
+            }
+        }
+        // indexed loops, an iterator would allocate every loop
+        for (int i = 0; i < sections.size(); i++) {
+            sections.get(i).loopNanos = 0;
+        }
+
+        totalLoops++;
+        loopsSincePublish++;
+        if (loopsSincePublish >= PUBLISH_PERIOD_LOOPS) {
+            loopsSincePublish = 0;
+            loop.publish();
+            for (int i = 0; i < sections.size(); i++) {
+                sections.get(i).publish();
+            }
+        }
+    }
+
+    /**
+     * Prints the average time per loop each section has taken since the robot
+     * started, slowest first. Used by the sim runner to compare the cost of a
+     * change between two builds.
+     */
+    public static void printSummary() {
+        if (totalLoops == 0) {
+            return;
+        }
+        List<Section> sorted = new ArrayList<>(sections);
+        sorted.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        System.out.printf("Average CPU time per loop over %d loops:%n", totalLoops);
+        System.out.printf("  %-32s %8.1f us%n", loop.name, loop.totalNanos / 1e3 / totalLoops);
+        for (Section section : sorted) {
+            System.out.printf("  %-32s %8.1f us%n", section.name, section.totalNanos / 1e3 / totalLoops);
+        }
+    }
+}
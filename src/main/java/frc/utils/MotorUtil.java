@@ -4,38 +4,155 @@
 
 package frc.utils;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
 import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Constants.CodeConstants;
 
 public class MotorUtil {
 
-    public static CANSparkMax createSparkMAX(int id, MotorType motortype, int stallLimit, boolean isInverted, boolean isIdleBreak, double slewRate) {
-        CANSparkMax sparkMAX = createSparkMAX(id, motortype, stallLimit, isIdleBreak, slewRate);
-        sparkMAX.setInverted(isInverted);
-        return sparkMAX;
-    }
+    // slowest period a SPARK MAX accepts, used to turn a frame off
+    private static final int OFF = 32767;
+    private static final int ODOMETRY = (int) (1000 / CodeConstants.kOdometryFrequency);
+
+    // an extended ID frame with 8 data bytes, plus typical bit stuffing
+    private static final double BITS_PER_FRAME = 144;
+    private static final double CAN_BITS_PER_SECOND = 1_000_000;
+
+    /**
+     * How often a SPARK MAX sends each status frame, in ms, by what the motor
+     * is used for. Every frame a motor's code doesn't read is turned off.
+     *
+     * <ul>
+     * <li>0: applied output, faults, and what followers follow
+     * <li>1: velocity, current, temperature, bus voltage
+     * <li>2: relative encoder position
+     * <li>3: analog sensor
+     * <li>4: alternate encoder
+     * <li>5: absolute encoder position
+     * <li>6: absolute encoder velocity
+     * </ul>
+     */
+    public enum StatusFrames {
+        // everything at REV's defaults
+        DEFAULT(10, 20, 20, 50, 20, 200, 200),
+        // driven open loop or by velocity, only speed and current are read
+        VELOCITY_ONLY(20, 20, OFF, OFF, OFF, OFF, OFF),
+        // reads the relative encoder's position every loop
+        POSITION(20, 20, 20, OFF, OFF, OFF, OFF),
+        // a leader with a follower, that also reads the absolute encoder now and then
+        LEADER_WITH_ABSOLUTE(10, 20, 20, OFF, OFF, 200, OFF),
+        // only faults are worth hearing about
+        FOLLOWER(100, 250, OFF, OFF, OFF, OFF, OFF),
+        // swerve drive and turn, read by the odometry thread
+        SWERVE_DRIVE(20, 20, ODOMETRY, OFF, OFF, OFF, OFF),
+        SWERVE_TURN(20, 20, OFF, OFF, OFF, ODOMETRY, OFF);
 
-    public static CANSparkMax createSparkMAX(int id, MotorType motortype, int stallLimit, boolean isIdleBreak, double slewRate) {
-        CANSparkMax sparkMAX = new CANSparkMax(id, motortype);
-        sparkMAX.restoreFactoryDefaults();
-        sparkMAX.setSmartCurrentLimit(stallLimit);
+        private static final PeriodicFrame[] FRAMES = {
+            PeriodicFrame.kStatus0, PeriodicFrame.kStatus1, PeriodicFrame.kStatus2, PeriodicFrame.kStatus3,
+            PeriodicFrame.kStatus4, PeriodicFrame.kStatus5, PeriodicFrame.kStatus6 };
 
-        if(isIdleBreak) {
-            sparkMAX.setIdleMode(CANSparkMax.IdleMode.kBrake);
+        private final int[] periodsMs;
+
+        StatusFrames(int... periodsMs) {
+            this.periodsMs = periodsMs;
         }
-        else {
-            sparkMAX.setIdleMode(CANSparkMax.IdleMode.kCoast);
+
+        /** Status frames one motor with this profile sends each second. */
+        public double getFramesPerSecond() {
+            double frames = 0;
+            for (int period : periodsMs) {
+                if (period != OFF) {
+                    frames += 1000.0 / period;
+                }
+            }
+            return frames;
         }
+    }
 
-        // built in slew rate for spark max
-       sparkMAX.setOpenLoopRampRate(slewRate);
-    
-       return sparkMAX;
+    private static double framesPerSecond = 0;
+    private static int sparkCount = 0;
+    // motors can be made on several threads at once, see ParallelInit
+    private static final AtomicInteger unconfiguredCount = new AtomicInteger();
+
+    public static CachedSparkMax createSparkMAX(int id, MotorType motortype, int stallLimit, boolean isInverted, boolean isIdleBreak, double slewRate, StatusFrames statusFrames) {
+        return createSparkMAX(id, motortype, baseConfig(stallLimit, isInverted, isIdleBreak, slewRate), statusFrames);
     }
 
-    public static void turnOffLevel3456StatusFrames(){
+    public static CachedSparkMax createSparkMAX(int id, MotorType motortype, int stallLimit, boolean isIdleBreak, double slewRate, StatusFrames statusFrames) {
+        return createSparkMAX(id, motortype, baseConfig(stallLimit, false, isIdleBreak, slewRate), statusFrames);
+    }
 
+    /**
+     * Makes a SPARK MAX, configuring it only if it doesn't already have
+     * {@code config} burned in. If it can't be configured, a warning goes to
+     * the driver station and the count of unconfigured SPARK MAXes on the
+     * dashboard goes up.
+     */
+    public static CachedSparkMax createSparkMAX(int id, MotorType motortype, SparkConfig config, StatusFrames statusFrames) {
+        CachedSparkMax sparkMAX = new CachedSparkMax(id, motortype);
+        if (!config.apply(sparkMAX)) {
+            DriverStation.reportWarning("SPARK MAX " + id + " couldn't be configured, it may not behave as expected", false);
+            SmartDashboard.putNumber("CAN/unconfigured SPARK MAXes", unconfiguredCount.incrementAndGet());
+        }
+        // status frame periods aren't saved to flash, so they're always sent
+        setStatusFrames(sparkMAX, statusFrames);
+        return sparkMAX;
+    }
+
+    /** The settings every motor has. Add anything else the motor needs to it. */
+    public static SparkConfig baseConfig(int stallLimit, boolean isInverted, boolean isIdleBreak, double slewRate) {
+        return new SparkConfig()
+                .add("current limit", stallLimit, (sparkMAX, value) -> sparkMAX.setSmartCurrentLimit((int) value))
+                .add("inverted", isInverted, (sparkMAX, value) -> {
+                    sparkMAX.setInverted(value != 0);
+                    return sparkMAX.getLastError();
+                })
+                .add("idle brake", isIdleBreak, (sparkMAX, value) -> sparkMAX.setIdleMode(
+                        value != 0 ? CANSparkMax.IdleMode.kBrake : CANSparkMax.IdleMode.kCoast))
+                // built in slew rate for spark max
+                .add("open loop ramp rate", slewRate, (sparkMAX, value) -> sparkMAX.setOpenLoopRampRate(value));
+    }
 
+    /** Sets every status frame period from a profile. */
+    public static void setStatusFrames(CANSparkMax sparkMAX, StatusFrames statusFrames) {
+        int errors = 0;
+        for (int i = 0; i < StatusFrames.FRAMES.length; i++) {
+            if (sparkMAX.setPeriodicFramePeriod(StatusFrames.FRAMES[i], statusFrames.periodsMs[i]) != REVLibError.kOk) {
+                errors++;
+            }
+        }
+        if (errors > 0) {
+            System.out.println("SPARK MAX " + sparkMAX.getDeviceId() + " failed to set " + errors + " status frames");
+        }
+        tally(statusFrames);
+    }
+
+    // motors can be made on several threads at once, see ParallelInit
+    private static synchronized void tally(StatusFrames statusFrames) {
+        framesPerSecond += statusFrames.getFramesPerSecond();
+        sparkCount++;
+    }
+
+    /**
+     * Prints roughly how much of the CAN bus the SPARK MAXes' status frames take
+     * up. Call once every motor has been made.
+     */
+    public static synchronized void reportBusUtilization() {
+        if (sparkCount == 0) {
+            return;
+        }
+        double utilization = framesPerSecond * BITS_PER_FRAME / CAN_BITS_PER_SECOND;
+        System.out.printf("%d SPARK MAXes send about %.0f status frames/s, %.0f%% of the CAN bus%n", sparkCount,
+                framesPerSecond, 100 * utilization);
+        SmartDashboard.putNumber("CAN/estimated SPARK status utilization (%)", 100 * utilization);
+        SmartDashboard.putNumber("CAN/unconfigured SPARK MAXes", unconfiguredCount.get());
     }
 
 }
@@ -0,0 +1,87 @@
+package frc.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Brings up independent devices at the same time. Most of a device's
+ * constructor is spent waiting on CAN round trips, so running the swerve
+ * modules, mechanisms and sensors side by side instead of one after another
+ * cuts the time from power on to robot code ready.
+ *
+ * <p>
+ * Only build IO objects here, not subsystems, since subsystems register with
+ * the CommandScheduler, which isn't thread safe. Call {@link #join()} before
+ * using anything submitted.
+ */
+public class ParallelInit {
+
+    private static final int THREADS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "device init");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<String> names = new ArrayList<>();
+    private final List<Future<?>> futures = new ArrayList<>();
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Starts building a device on another thread.
+     *
+     * @param name   What to call it in the timing printout.
+     * @param device Builds the device.
+     * @return The device, once {@link #join()} has returned.
+     */
+    public <T> Future<T> submit(String name, Supplier<T> device) {
+        Future<T> future = executor.submit(() -> {
+            long start = System.nanoTime();
+            T result = device.get();
+            System.out.printf("  %s initialized in %.0f ms%n", name, (System.nanoTime() - start) / 1e6);
+            return result;
+        });
+        names.add(name);
+        futures.add(future);
+        return future;
+    }
+
+    /**
+     * Waits for every device to be built and prints how long it all took. If a
+     * device threw, it's rethrown here so the robot fails to start just like it
+     * would have without this.
+     */
+    public void join() {
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Failed to initialize " + names.get(i), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted initializing " + names.get(i), e);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.out.printf("%d devices initialized in %.0f ms%n", futures.size(),
+                (System.nanoTime() - startTime) / 1e6);
+    }
+
+    /** Gets a device submitted before {@link #join()}. */
+    public static <T> T get(Future<T> device) {
+        try {
+            return device.get();
+        } catch (InterruptedException | ExecutionException e) {
+            // join() already surfaced any failure
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package frc.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+
+/**
+ * Every input recorded in a WPILOG, loaded into memory and split up by the loop
+ * it was recorded in. A match is a few thousand loops of a hundred or so
+ * values, which fits easily.
+ *
+ * <p>
+ * Inputs read while the robot was being constructed, before the first loop,
+ * are kept as loop -1, so constructors see the same values in replay.
+ */
+class ReplayLog {
+
+    /** Every value recorded for one input, in order. */
+    static class Channel {
+        final String type;
+        private int[] cycles = new int[64];
+        private final List<Object> values = new ArrayList<>();
+
+        Channel(String type) {
+            this.type = type;
+        }
+
+        void add(int cycle, Object value) {
+            if (values.size() == cycles.length) {
+                cycles = Arrays.copyOf(cycles, cycles.length * 2);
+            }
+            cycles[values.size()] = cycle;
+            values.add(value);
+        }
+    }
+
+    /** Walks one channel forward a loop at a time. */
+    static class Cursor {
+        private final Channel channel;
+        private int index = -1;
+
+        Cursor(Channel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * @param cycle The loop to read, or -1 for what was read during
+         *              construction.
+         * @return The last value recorded at or before {@code cycle}, or null if
+         *         there isn't one yet.
+         */
+        Object get(int cycle) {
+            while (index + 1 < channel.values.size() && channel.cycles[index + 1] <= cycle) {
+                index++;
+            }
+            return index >= 0 ? channel.values.get(index) : null;
+        }
+    }
+
+    private final Map<String, Channel> channels = new HashMap<>();
+    private double[] timestamps = new double[1024];
+    private int cycleCount = 0;
+
+    ReplayLog(String path) throws IOException {
+        DataLogReader reader = new DataLogReader(path);
+        if (!reader.isValid()) {
+            throw new IOException(path + " isn't a WPILOG");
+        }
+
+        Map<Integer, Channel> channelsByEntry = new HashMap<>();
+        int timestampEntry = -1;
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData start = record.getStartData();
+                if (start.name.equals(InputsLog.TIMESTAMP_KEY)) {
+                    timestampEntry = start.entry;
+                } else if (start.name.startsWith(InputsLog.PREFIX)) {
+                    channelsByEntry.put(start.entry,
+                            channels.computeIfAbsent(start.name, name -> new Channel(start.type)));
+                }
+            } else if (record.isFinish()) {
+                channelsByEntry.remove(record.getFinishEntry());
+            } else if (!record.isControl()) {
+                if (record.getEntry() == timestampEntry) {
+                    if (cycleCount == timestamps.length) {
+                        timestamps = Arrays.copyOf(timestamps, timestamps.length * 2);
+                    }
+                    timestamps[cycleCount++] = record.getDouble();
+                    continue;
+                }
+                Channel channel = channelsByEntry.get(record.getEntry());
+                if (channel != null) {
+                    channel.add(cycleCount - 1, read(record, channel.type));
+                }
+            }
+        }
+    }
+
+    private static Object read(DataLogRecord record, String type) {
+        switch (type) {
+            case "double":
+                return record.getDouble();
+            case "boolean":
+                return record.getBoolean();
+            case "int64":
+                return record.getInteger();
+            case "double[]":
+                return record.getDoubleArray();
+            default:
+                throw new IllegalArgumentException("Can't replay inputs of type " + type);
+        }
+    }
+
+    /** @return null if nothing was recorded under {@code key}. */
+    Cursor getCursor(String key) {
+        Channel channel = channels.get(key);
+        return channel == null ? null : new Cursor(channel);
+    }
+
+    int getCycleCount() {
+        return cycleCount;
+    }
+
+    double getTimestamp(int cycle) {
+        return timestamps[cycle];
+    }
+}
@@ -0,0 +1,91 @@
+package frc.utils;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer, single-consumer ring buffer of fixed-width
+ * double records. One thread calls {@link #write(double[])}, one other thread
+ * calls {@link #read(double[])}. Neither side allocates or blocks; if the
+ * reader falls more than a full buffer behind, the oldest records are dropped.
+ */
+public class SampleRingBuffer {
+
+  private final int capacity;
+  private final int mask;
+  private final int width;
+  private final double[] data;
+
+  // index of the next record the producer will write
+  private final AtomicLong writeIndex = new AtomicLong();
+  // index of the next record the consumer will read (consumer thread only)
+  private long readIndex = 0;
+  private long droppedRecords = 0;
+
+  /**
+   * @param capacity Number of records held, rounded up to a power of two.
+   * @param width    Number of doubles in each record.
+   */
+  public SampleRingBuffer(int capacity, int width) {
+    int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+    this.capacity = size;
+    this.mask = size - 1;
+    this.width = width;
+    this.data = new double[size * width];
+  }
+
+  /**
+   * Appends a record. Producer thread only.
+   *
+   * @param record Array of at least {@code width} doubles, copied into the
+   *               buffer.
+   */
+  public void write(double[] record) {
+    long index = writeIndex.get();
+    System.arraycopy(record, 0, data, (int) (index & mask) * width, width);
+    // publish the record only after its contents are written
+    writeIndex.lazySet(index + 1);
+  }
+
+  /**
+   * Copies the oldest unread record into {@code record}. Consumer thread only.
+   *
+   * @param record Array of at least {@code width} doubles to fill.
+   * @return false if there was nothing to read.
+   */
+  public boolean read(double[] record) {
+    while (true) {
+      long available = writeIndex.get();
+      if (readIndex >= available) {
+        return false;
+      }
+      if (available - readIndex >= capacity) {
+        // the slot after the newest record is the one the producer writes next
+        droppedRecords += available - capacity + 1 - readIndex;
+        readIndex = available - capacity + 1;
+      }
+      System.arraycopy(data, (int) (readIndex & mask) * width, record, 0, width);
+      // make sure the copy is finished before checking whether the producer
+      // lapped us while we were reading
+      VarHandle.loadLoadFence();
+      if (writeIndex.get() - readIndex < capacity) {
+        readIndex++;
+        return true;
+      }
+    }
+  }
+
+  /** Discards every unread record. Consumer thread only. */
+  public void clear() {
+    readIndex = writeIndex.get();
+  }
+
+  /** Number of records dropped because the consumer fell behind. */
+  public long getDroppedRecords() {
+    return droppedRecords;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+}
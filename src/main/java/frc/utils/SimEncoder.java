@@ -2,8 +2,9 @@ package frc.utils;
 
 public class SimEncoder {
 
-  private double distance = 0.0;
-  private double speed = 0.0;
+  // volatile so other threads, like the odometry thread, see fresh readings
+  private volatile double distance = 0.0;
+  private volatile double speed = 0.0;
 
   public SimEncoder(String name) {
   }
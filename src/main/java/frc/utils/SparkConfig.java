@@ -0,0 +1,131 @@
+package frc.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
+
+/**
+ * Every persistent setting for one SPARK MAX, written down as data so the
+ * whole config can be hashed.
+ *
+ * <p>
+ * The hash is stored on the SPARK itself, in the IZone of a PID slot nothing
+ * uses, and burned to flash along with the config. On the next boot, if the
+ * stored hash matches, the SPARK already has this config and nothing is sent,
+ * which skips the dozens of blocking calls a full configure takes. Change any
+ * setting here and the hash changes, so the SPARK is configured and burned
+ * again.
+ */
+public class SparkConfig {
+
+    /** Sends one setting to a SPARK MAX. */
+    @FunctionalInterface
+    public interface Setter {
+        REVLibError apply(CANSparkMax sparkMAX, double value);
+    }
+
+    /** Sends one setting that takes several values, or none, to a SPARK MAX. */
+    @FunctionalInterface
+    public interface MultiSetter {
+        REVLibError apply(CANSparkMax sparkMAX, double[] values);
+    }
+
+    private static final int MAX_ATTEMPTS = 3;
+    // the hash lives in a PID slot nothing else uses
+    private static final int HASH_SLOT = 3;
+    // the IZone is a float, which holds integers exactly up to 2^24
+    private static final int HASH_MASK = 0xFFFFFF;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<double[]> values = new ArrayList<>();
+    private final List<MultiSetter> setters = new ArrayList<>();
+
+    /**
+     * Adds a setting. Settings are sent in the order they're added.
+     *
+     * @param name  Unique name for the setting, part of the hash.
+     * @param value The setting's value, part of the hash and passed to the
+     *              setter.
+     */
+    public SparkConfig add(String name, double value, Setter setter) {
+        return add(name, (sparkMAX, values) -> setter.apply(sparkMAX, values[0]), value);
+    }
+
+    /**
+     * Adds a setting that takes several values, like an output range, or none,
+     * like a feedback device. Settings are sent in the order they're added.
+     *
+     * @param name   Unique name for the setting, part of the hash.
+     * @param values The setting's values, all part of the hash and passed to
+     *               the setter in order.
+     */
+    public SparkConfig add(String name, MultiSetter setter, double... values) {
+        names.add(name);
+        this.values.add(values);
+        setters.add(setter);
+        return this;
+    }
+
+    public SparkConfig add(String name, boolean value, Setter setter) {
+        return add(name, value ? 1 : 0, setter);
+    }
+
+    /** Never 0, which is what a factory fresh SPARK has stored. */
+    public int getHash() {
+        int hash = 17;
+        for (int i = 0; i < names.size(); i++) {
+            hash = 31 * hash + names.get(i).hashCode();
+            for (double value : values.get(i)) {
+                hash = 31 * hash + Double.hashCode(value);
+            }
+        }
+        hash &= HASH_MASK;
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Makes sure the SPARK MAX has this config, configuring it and burning it
+     * to flash only if the hash stored on it doesn't match. If any setting
+     * fails, even after retrying, the hash isn't stored, so it's tried again
+     * next boot.
+     *
+     * @return Whether the SPARK MAX ends up with this config.
+     */
+    public boolean apply(CANSparkMax sparkMAX) {
+        int hash = getHash();
+        if (sparkMAX.getPIDController().getIZone(HASH_SLOT) == hash) {
+            return true;
+        }
+
+        boolean configured = retry(sparkMAX::restoreFactoryDefaults);
+        for (int i = 0; i < setters.size(); i++) {
+            MultiSetter setter = setters.get(i);
+            double[] settingValues = values.get(i);
+            if (!retry(() -> setter.apply(sparkMAX, settingValues))) {
+                System.out.println("SPARK MAX " + sparkMAX.getDeviceId() + " failed to set " + names.get(i));
+                configured = false;
+            }
+        }
+        if (!configured) {
+            return false;
+        }
+
+        configured = retry(() -> sparkMAX.getPIDController().setIZone(hash, HASH_SLOT))
+                && retry(sparkMAX::burnFlash);
+        System.out.println("SPARK MAX " + sparkMAX.getDeviceId()
+                + (configured ? " configured and burned to flash" : " failed to burn to flash"));
+        return configured;
+    }
+
+    private static boolean retry(Supplier<REVLibError> call) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (call.get() == REVLibError.kOk) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,10 @@
 package frc.utils;
 
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
 public class SwerveUtils {
 
     /**
@@ -86,4 +91,113 @@ public class SwerveUtils {
             return _angle;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Converts field-relative speeds into robot-relative speeds in place, like {@link ChassisSpeeds#fromFieldRelativeSpeeds}
+     * without allocating.
+     * @param speeds Field-relative speeds, overwritten with robot-relative speeds.
+     * @param robotAngle The robot's heading (in radians).
+     */
+    public static void FromFieldRelativeSpeeds(ChassisSpeeds speeds, double robotAngle) {
+        double cos = Math.cos(robotAngle);
+        double sin = Math.sin(robotAngle);
+        double vx = speeds.vxMetersPerSecond;
+        double vy = speeds.vyMetersPerSecond;
+        speeds.vxMetersPerSecond = vx * cos + vy * sin;
+        speeds.vyMetersPerSecond = -vx * sin + vy * cos;
+    }
+
+    /**
+     * Discretizes continuous speeds in place, like {@link ChassisSpeeds#discretize(ChassisSpeeds, double)} without
+     * allocating.
+     * @param speeds The speeds to discretize, overwritten with the result.
+     * @param dtSeconds The duration of the timestep the speeds will be applied for.
+     */
+    public static void Discretize(ChassisSpeeds speeds, double dtSeconds) {
+        double dx = speeds.vxMetersPerSecond * dtSeconds;
+        double dy = speeds.vyMetersPerSecond * dtSeconds;
+        double dtheta = speeds.omegaRadiansPerSecond * dtSeconds;
+
+        // Same math as Pose2d.log() of the desired change in pose
+        double halfDtheta = dtheta / 2.0;
+        double cosMinusOne = Math.cos(dtheta) - 1;
+        double halfThetaByTanOfHalfDtheta;
+        if (Math.abs(cosMinusOne) < 1E-9) {
+            halfThetaByTanOfHalfDtheta = 1.0 - 1.0 / 12.0 * dtheta * dtheta;
+        }
+        else {
+            halfThetaByTanOfHalfDtheta = -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+        }
+
+        speeds.vxMetersPerSecond = (dx * halfThetaByTanOfHalfDtheta + dy * halfDtheta) / dtSeconds;
+        speeds.vyMetersPerSecond = (dy * halfThetaByTanOfHalfDtheta - dx * halfDtheta) / dtSeconds;
+    }
+
+    /**
+     * Inverse kinematics that writes into existing module states instead of allocating new ones. Like
+     * {@link edu.wpi.first.math.kinematics.SwerveDriveKinematics#toSwerveModuleStates}, a module that isn't moving
+     * keeps its previous angle. Rotation2d is immutable, so a new one is only made when a module's direction
+     * changes.
+     * @param speeds Desired robot-relative speeds.
+     * @param moduleLocations Location of each module relative to the center of the robot.
+     * @param states Module states to overwrite, in the same order as {@code moduleLocations}.
+     */
+    public static void ToSwerveModuleStates(ChassisSpeeds speeds, Translation2d[] moduleLocations, SwerveModuleState[] states) {
+        for (int i = 0; i < states.length; i++) {
+            double vx = speeds.vxMetersPerSecond - speeds.omegaRadiansPerSecond * moduleLocations[i].getY();
+            double vy = speeds.vyMetersPerSecond + speeds.omegaRadiansPerSecond * moduleLocations[i].getX();
+            double speed = Math.hypot(vx, vy);
+            states[i].speedMetersPerSecond = speed;
+            // Rotation2d(x, y) stores exactly these quotients, so this is true whenever it would come out the same
+            if (speed > 1E-6 && (states[i].angle.getCos() != vx / speed || states[i].angle.getSin() != vy / speed)) {
+                states[i].angle = new Rotation2d(vx, vy);
+            }
+        }
+    }
+
+    /**
+     * Forward kinematics that writes into an existing {@link ChassisSpeeds}. This is the least-squares solution
+     * {@link edu.wpi.first.math.kinematics.SwerveDriveKinematics#toChassisSpeeds} finds, simplified by assuming the
+     * modules are centered on the middle of the robot, which they are on every MAXSwerve chassis.
+     * @param states Measured module states.
+     * @param moduleLocations Location of each module relative to the center of the robot.
+     * @param speeds Speeds to overwrite with the robot-relative result.
+     */
+    public static void ToChassisSpeeds(SwerveModuleState[] states, Translation2d[] moduleLocations, ChassisSpeeds speeds) {
+        double vx = 0;
+        double vy = 0;
+        double omegaNumerator = 0;
+        double omegaDenominator = 0;
+        for (int i = 0; i < states.length; i++) {
+            double moduleVx = states[i].speedMetersPerSecond * states[i].angle.getCos();
+            double moduleVy = states[i].speedMetersPerSecond * states[i].angle.getSin();
+            double x = moduleLocations[i].getX();
+            double y = moduleLocations[i].getY();
+            vx += moduleVx;
+            vy += moduleVy;
+            omegaNumerator += x * moduleVy - y * moduleVx;
+            omegaDenominator += x * x + y * y;
+        }
+        speeds.vxMetersPerSecond = vx / states.length;
+        speeds.vyMetersPerSecond = vy / states.length;
+        speeds.omegaRadiansPerSecond = omegaNumerator / omegaDenominator;
+    }
+
+    /**
+     * Scales every module speed down by the same factor so none is above the maximum, without the allocation
+     * {@link edu.wpi.first.math.kinematics.SwerveDriveKinematics#desaturateWheelSpeeds} does.
+     * @param states Module states to scale in place.
+     * @param maxSpeed The fastest any module is allowed to go (in meters per second).
+     */
+    public static void DesaturateWheelSpeeds(SwerveModuleState[] states, double maxSpeed) {
+        double realMaxSpeed = 0;
+        for (SwerveModuleState state : states) {
+            realMaxSpeed = Math.max(realMaxSpeed, Math.abs(state.speedMetersPerSecond));
+        }
+        if (realMaxSpeed > maxSpeed) {
+            for (SwerveModuleState state : states) {
+                state.speedMetersPerSecond = state.speedMetersPerSecond / realMaxSpeed * maxSpeed;
+            }
+        }
+    }
+}
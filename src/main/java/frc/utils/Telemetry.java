@@ -0,0 +1,402 @@
+package frc.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.BooleanSubscriber;
+import edu.wpi.first.networktables.BooleanTopic;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.networktables.StructArrayPublisher;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.Constants.CodeConstants;
+
+/**
+ * Dashboard values published through publishers made once up front, instead
+ * of SmartDashboard.put calls that look the key up by string every time.
+ *
+ * <p>
+ * Each subsystem makes a {@link Group} and adds its entries once, when it's
+ * constructed. Setting an entry only stores the value; {@link #flush()}
+ * publishes everything that changed, once per loop. Entries live under
+ * SmartDashboard/ with the same keys as before, so dashboard layouts don't
+ * change.
+ *
+ * <p>
+ * Every entry has a {@link Tier} that decides how often it's sent. During a
+ * match the total is also held to
+ * {@link CodeConstants#kTelemetryBytesPerSecond}: critical entries always go
+ * out, and whatever is left of the budget goes to diagnostic, then debug
+ * entries. An entry that doesn't fit waits for a later loop.
+ *
+ * <p>
+ * Main thread only, except making groups, since IO objects
+ * make their groups while {@link ParallelInit} builds them side by side.
+ */
+public class Telemetry {
+
+    private static final int LOOPS_PER_DIAGNOSTIC = (int) Math
+            .round(CodeConstants.kMainLoopFrequency / CodeConstants.kDiagnosticTelemetryFrequency);
+    private static final double BYTES_PER_LOOP = CodeConstants.kTelemetryBytesPerSecond
+            / CodeConstants.kMainLoopFrequency;
+    // NT4 sends each value as a msgpack array of topic ID, timestamp, type and
+    // value; this is the most everything but the value takes
+    private static final int MESSAGE_OVERHEAD_BYTES = 16;
+
+    /** How important an entry is, which sets how often it's sent. */
+    public enum Tier {
+        // every loop, never held back by the budget
+        CRITICAL(1),
+        // at kDiagnosticTelemetryFrequency
+        DIAGNOSTIC(LOOPS_PER_DIAGNOSTIC),
+        // every loop, but only while Telemetry/debug is turned on
+        DEBUG(1);
+
+        private final int periodLoops;
+
+        Tier(int periodLoops) {
+            this.periodLoops = periodLoops;
+        }
+    }
+
+    // values() makes a new array every call
+    private static final Tier[] TIERS = Tier.values();
+
+    private static final NetworkTable dashboard = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+    private static final NetworkTable telemetryTable = NetworkTableInstance.getDefault().getTable("Telemetry");
+    private static final BooleanTopic debugTopic = telemetryTable.getBooleanTopic("debug");
+    // published so the toggle shows up on the dashboard
+    private static final BooleanPublisher debugPublisher = debugTopic.publish();
+    private static final BooleanSubscriber debugEnabled = debugTopic.subscribe(false);
+    private static final DoublePublisher bytesPerSecondPublisher = telemetryTable
+            .getDoubleTopic("estimated bytes per second").publish();
+    private static final DoublePublisher deferredPublisher = telemetryTable.getDoubleTopic("deferred values")
+            .publish();
+    // only added to at boot, and get(i) doesn't lock, so flush() pays nothing
+    private static final List<Group> groups = new CopyOnWriteArrayList<>();
+
+    private static long loopCount = 0;
+    // the budget is a token bucket that holds up to one second of bytes
+    private static double budgetBytes = CodeConstants.kTelemetryBytesPerSecond;
+    private static double bytesThisSecond = 0;
+    private static long deferredValues = 0;
+
+    static {
+        debugPublisher.setDefault(false);
+    }
+
+    /** Every entry one subsystem publishes, all under one table. */
+    public static class Group {
+        private final NetworkTable table;
+        private final Tier defaultTier;
+        // spreads the groups' diagnostic loops out instead of all on the same one
+        private final int loopOffset;
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Group(NetworkTable table, Tier defaultTier, int loopOffset) {
+            this.table = table;
+            this.defaultTier = defaultTier;
+            this.loopOffset = loopOffset;
+        }
+
+        public DoubleEntry addDouble(String key) {
+            return addDouble(key, defaultTier);
+        }
+
+        public DoubleEntry addDouble(String key, Tier tier) {
+            return add(new DoubleEntry(table.getDoubleTopic(key).publish(), tier));
+        }
+
+        public BooleanEntry addBoolean(String key) {
+            return addBoolean(key, defaultTier);
+        }
+
+        public BooleanEntry addBoolean(String key, Tier tier) {
+            return add(new BooleanEntry(table.getBooleanTopic(key).publish(), tier));
+        }
+
+        public StringEntry addString(String key) {
+            return addString(key, defaultTier);
+        }
+
+        public StringEntry addString(String key, Tier tier) {
+            return add(new StringEntry(table.getStringTopic(key).publish(), tier));
+        }
+
+        public <T> StructEntry<T> addStruct(String key, Struct<T> struct) {
+            return addStruct(key, struct, defaultTier);
+        }
+
+        public <T> StructEntry<T> addStruct(String key, Struct<T> struct, Tier tier) {
+            return add(new StructEntry<>(table.getStructTopic(key, struct).publish(), struct, tier));
+        }
+
+        public <T> StructArrayEntry<T> addStructArray(String key, Struct<T> struct) {
+            return addStructArray(key, struct, defaultTier);
+        }
+
+        public <T> StructArrayEntry<T> addStructArray(String key, Struct<T> struct, Tier tier) {
+            return add(new StructArrayEntry<>(table.getStructArrayTopic(key, struct).publish(), struct, tier));
+        }
+
+        private <E extends Entry> E add(E entry) {
+            entries.add(entry);
+            return entry;
+        }
+
+        private boolean isDue(Tier tier) {
+            return (loopCount + loopOffset) % tier.periodLoops == 0;
+        }
+
+        private void flush(Tier tier, boolean enforceBudget) {
+            if (!isDue(tier)) {
+                return;
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                if (entry.tier != tier || !entry.changed) {
+                    continue;
+                }
+                int bytes = entry.getSizeBytes() + MESSAGE_OVERHEAD_BYTES;
+                if (enforceBudget && tier != Tier.CRITICAL && bytes > budgetBytes) {
+                    // stays changed, so it goes out once there's room
+                    deferredValues++;
+                    continue;
+                }
+                budgetBytes -= bytes;
+                bytesThisSecond += bytes;
+                entry.changed = false;
+                entry.publish();
+            }
+        }
+    }
+
+    private abstract static class Entry {
+        private final Tier tier;
+        protected boolean changed = false;
+
+        protected Entry(Tier tier) {
+            this.tier = tier;
+        }
+
+        protected abstract void publish();
+
+        protected abstract int getSizeBytes();
+    }
+
+    public static class DoubleEntry extends Entry {
+        private final DoublePublisher publisher;
+        private double value = Double.NaN;
+        private double publishedValue = Double.NaN;
+        private boolean hasPublished = false;
+
+        private DoubleEntry(DoublePublisher publisher, Tier tier) {
+            super(tier);
+            this.publisher = publisher;
+        }
+
+        public void set(double value) {
+            this.value = value;
+            changed = !hasPublished || Double.compare(value, publishedValue) != 0;
+        }
+
+        @Override
+        protected void publish() {
+            publisher.set(value);
+            publishedValue = value;
+            hasPublished = true;
+        }
+
+        @Override
+        protected int getSizeBytes() {
+            return 9;
+        }
+    }
+
+    public static class BooleanEntry extends Entry {
+        private final BooleanPublisher publisher;
+        private boolean value = false;
+        private boolean publishedValue = false;
+        private boolean hasPublished = false;
+
+        private BooleanEntry(BooleanPublisher publisher, Tier tier) {
+            super(tier);
+            this.publisher = publisher;
+        }
+
+        public void set(boolean value) {
+            this.value = value;
+            changed = !hasPublished || value != publishedValue;
+        }
+
+        @Override
+        protected void publish() {
+            publisher.set(value);
+            publishedValue = value;
+            hasPublished = true;
+        }
+
+        @Override
+        protected int getSizeBytes() {
+            return 1;
+        }
+    }
+
+    public static class StringEntry extends Entry {
+        private final StringPublisher publisher;
+        private String value = "";
+        private String publishedValue = "";
+        private boolean hasPublished = false;
+
+        private StringEntry(StringPublisher publisher, Tier tier) {
+            super(tier);
+            this.publisher = publisher;
+        }
+
+        public void set(String value) {
+            this.value = value;
+            changed = !hasPublished || !value.equals(publishedValue);
+        }
+
+        @Override
+        protected void publish() {
+            publisher.set(value);
+            publishedValue = value;
+            hasPublished = true;
+        }
+
+        @Override
+        protected int getSizeBytes() {
+            // close enough for the ASCII names this is used for
+            return value.length();
+        }
+    }
+
+    /**
+     * Structs are serialized when they're flushed, not when they're set, so an
+     * object that's changed in place before the flush publishes its latest
+     * value.
+     */
+    public static class StructEntry<T> extends Entry {
+        private final StructPublisher<T> publisher;
+        private final int size;
+        private T value;
+
+        private StructEntry(StructPublisher<T> publisher, Struct<T> struct, Tier tier) {
+            super(tier);
+            this.publisher = publisher;
+            this.size = struct.getSize();
+        }
+
+        public void set(T value) {
+            this.value = value;
+            changed = true;
+        }
+
+        @Override
+        protected void publish() {
+            publisher.set(value);
+        }
+
+        @Override
+        protected int getSizeBytes() {
+            return size;
+        }
+    }
+
+    /** See {@link StructEntry} for when the array is read. */
+    public static class StructArrayEntry<T> extends Entry {
+        private final StructArrayPublisher<T> publisher;
+        private final int size;
+        private T[] value;
+
+        private StructArrayEntry(StructArrayPublisher<T> publisher, Struct<T> struct, Tier tier) {
+            super(tier);
+            this.publisher = publisher;
+            this.size = struct.getSize();
+        }
+
+        public void set(T[] value) {
+            this.value = value;
+            changed = true;
+        }
+
+        @Override
+        protected void publish() {
+            publisher.set(value);
+        }
+
+        @Override
+        protected int getSizeBytes() {
+            return size * value.length;
+        }
+    }
+
+    /**
+     * @param name        The subsystem's table under SmartDashboard/, or "" for
+     *                    SmartDashboard/ itself.
+     * @param defaultTier The tier of entries added without one.
+     */
+    public static Group group(String name, Tier defaultTier) {
+        return group(name.isEmpty() ? dashboard : dashboard.getSubTable(name), defaultTier);
+    }
+
+    /**
+     * For values that live outside SmartDashboard/ but should still count
+     * against the budget.
+     *
+     * @param table       The table to publish the entries under.
+     * @param defaultTier The tier of entries added without one.
+     */
+    public static synchronized Group group(NetworkTable table, Tier defaultTier) {
+        Group group = new Group(table, defaultTier, groups.size());
+        groups.add(group);
+        return group;
+    }
+
+    /**
+     * Whether values of this tier go out this loop. For dashboard data that
+     * isn't published through an entry, like Field2d objects, so it can skip
+     * the work on the other loops.
+     */
+    public static boolean isDue(Tier tier) {
+        if (tier == Tier.DEBUG && !debugEnabled.get()) {
+            return false;
+        }
+        return loopCount % tier.periodLoops == 0;
+    }
+
+    /**
+     * Publishes every entry that changed since it was last sent, if its tier is
+     * due this loop and there's room in the budget. Call once per loop.
+     */
+    public static void flush() {
+        // the link only needs protecting on the field
+        boolean enforceBudget = DriverStation.isFMSAttached();
+        budgetBytes = Math.min(budgetBytes + BYTES_PER_LOOP, CodeConstants.kTelemetryBytesPerSecond);
+
+        boolean debug = debugEnabled.get();
+        // most important first, so the budget runs out on the least important
+        for (Tier tier : TIERS) {
+            if (tier == Tier.DEBUG && !debug) {
+                continue;
+            }
+            for (int i = 0; i < groups.size(); i++) {
+                groups.get(i).flush(tier, enforceBudget);
+            }
+        }
+
+        loopCount++;
+        if (loopCount % (long) CodeConstants.kMainLoopFrequency == 0) {
+            bytesPerSecondPublisher.set(bytesThisSecond);
+            deferredPublisher.set(deferredValues);
+            bytesThisSecond = 0;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.interpolation.TimeInterpolatableBuffer;
+import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import edu.wpi.first.wpilibj.smartdashboard.FieldObject2d;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Constants.DriveConstants;
+import frc.robot.subsystems.gyro.GyroIOSim;
+import frc.utils.Telemetry;
+import frc.utils.Telemetry.Tier;
+
+/**
+ * Checks that the sim DriveSubsystem's periodic() and drive() don't allocate
+ * once the robot has settled into a steady command.
+ *
+ * <p>
+ * drive() may not allocate at all. periodic() still has to feed WPILib's pose
+ * estimator, odometry and Field2d, which allocate inside WPILib, so it's
+ * measured against those same WPILib calls made on their own and may only go
+ * over by {@link #MAX_EXTRA_BYTES} in total.
+ *
+ * <p>
+ * build.gradle turns escape analysis off for tests, so an allocation the JIT
+ * happens to optimize away here still counts.
+ */
+public class DriveSubsystemAllocationTest {
+
+    private static final int WARMUP_LOOPS = 2_000;
+    private static final int MEASURED_LOOPS = 5_000;
+    // the locks in DriverStation and NetworkTables can allocate now and then
+    private static final long MAX_EXTRA_BYTES = 1024;
+
+    private static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+
+    private static DriveSubsystem drive;
+    private static final SwerveModule[] modules = new SwerveModule[4];
+
+    // the WPILib calls periodic() makes, on objects of their own
+    private static SwerveDrivePoseEstimator referenceEstimator;
+    private static SwerveDriveOdometry referenceOdometry;
+    private static final TimeInterpolatableBuffer<Pose2d> referenceHistory = TimeInterpolatableBuffer
+            .createBuffer(1.5);
+    private static final Field2d referenceField = new Field2d();
+    private static final FieldObject2d[] referenceModules = new FieldObject2d[4];
+    private static final Transform2d referenceTransform = new Transform2d();
+    private static final SwerveModulePosition[] referencePositions = new SwerveModulePosition[4];
+    private static Rotation2d referenceYaw;
+
+    /** A command the driver holds steady. */
+    private enum Command {
+        // translating, so the heading is held with the heading controller
+        DRIVE(0.5, 0.2, 0),
+        // the driver is turning, so the heading hold is reset every loop
+        TURN(0.5, 0.2, 0.3),
+        // inside the deadband
+        STOPPED(0, 0, 0);
+
+        private final double xSpeed;
+        private final double ySpeed;
+        private final double rotRate;
+
+        Command(double xSpeed, double ySpeed, double rotRate) {
+            this.xSpeed = xSpeed;
+            this.ySpeed = ySpeed;
+            this.rotRate = rotRate;
+        }
+    }
+
+    @BeforeAll
+    public static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        // nothing steps the clock, so the odometry thread never runs and
+        // periodic() takes one reading itself every loop
+        SimHooks.pauseTiming();
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+
+        GyroIOSim gyro = new GyroIOSim();
+        // drive() resets the heading hold whenever the gyro reads exactly 0
+        gyro.setYaw(0.3);
+        modules[0] = new SwerveModule(new SwerveModuleIO_Sim("front left"));
+        modules[1] = new SwerveModule(new SwerveModuleIO_Sim("front right"));
+        modules[2] = new SwerveModule(new SwerveModuleIO_Sim("rear left"));
+        modules[3] = new SwerveModule(new SwerveModuleIO_Sim("rear right"));
+        drive = new DriveSubsystem(modules[0], modules[1], modules[2], modules[3], gyro, new VisionIO_Placebo());
+
+        referenceYaw = Rotation2d.fromRadians(gyro.getYaw());
+        for (int i = 0; i < modules.length; i++) {
+            referencePositions[i] = modules[i].getPosition();
+        }
+        referenceEstimator = new SwerveDrivePoseEstimator(DriveConstants.kDriveKinematics, referenceYaw,
+                referencePositions, new Pose2d());
+        referenceOdometry = new SwerveDriveOdometry(DriveConstants.kDriveKinematics, referenceYaw,
+                referencePositions);
+        SmartDashboard.putData("allocation reference", referenceField);
+        for (int i = 0; i < referenceModules.length; i++) {
+            referenceModules[i] = referenceField.getObject("module " + i);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+
+    private static void drive(Command command) {
+        drive.drive(command.xSpeed, command.ySpeed, command.rotRate, true, false);
+    }
+
+    /** What periodic() asks of WPILib each loop, once the robot is steady. */
+    private static void reference() {
+        double timestamp = Timer.getFPGATimestamp();
+        referenceEstimator.updateWithTime(timestamp, referenceYaw, referencePositions);
+        referenceHistory.addSample(timestamp, referenceOdometry.update(referenceYaw, referencePositions));
+        Pose2d pose = referenceEstimator.getEstimatedPosition();
+        referenceField.setRobotPose(pose);
+        if (Telemetry.isDue(Tier.DIAGNOSTIC)) {
+            for (int i = 0; i < referenceModules.length; i++) {
+                referenceModules[i].setPose(pose.transformBy(referenceTransform));
+            }
+        }
+    }
+
+    @Test
+    public void driveDoesNotAllocate() {
+        for (Command command : Command.values()) {
+            // long enough for the setpoint generator and heading controller
+            // to settle on the command
+            for (int i = 0; i < WARMUP_LOOPS; i++) {
+                drive.periodic();
+                drive(command);
+            }
+
+            long allocated = 0;
+            for (int i = 0; i < MEASURED_LOOPS; i++) {
+                drive.periodic();
+                long before = allocatedBytes();
+                drive(command);
+                allocated += allocatedBytes() - before;
+            }
+            assertEquals(0, allocated, "bytes allocated by drive() while " + command);
+        }
+    }
+
+    @Test
+    public void periodicOnlyAllocatesInWpilib() {
+        for (int i = 0; i < WARMUP_LOOPS; i++) {
+            drive.periodic();
+            drive(Command.DRIVE);
+            reference();
+        }
+
+        long periodicBytes = 0;
+        long referenceBytes = 0;
+        for (int i = 0; i < MEASURED_LOOPS; i++) {
+            long before = allocatedBytes();
+            drive.periodic();
+            periodicBytes += allocatedBytes() - before;
+            drive(Command.DRIVE);
+
+            before = allocatedBytes();
+            reference();
+            referenceBytes += allocatedBytes() - before;
+        }
+        assertTrue(periodicBytes - referenceBytes <= MAX_EXTRA_BYTES, "periodic() allocated " + periodicBytes
+                + " bytes, the WPILib calls it makes allocated " + referenceBytes);
+    }
+}
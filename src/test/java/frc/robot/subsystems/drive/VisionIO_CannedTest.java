@@ -0,0 +1,106 @@
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Constants.CodeConstants;
+
+/**
+ * Drives canned estimates through {@link VisionThread} on the paused sim clock
+ * and checks that the main loop drains them in order, each stamped with when
+ * its frame would have been captured.
+ */
+public class VisionIO_CannedTest {
+
+    private static final double LATENCY = 0.03;
+    private static final double LOOP_PERIOD = 1 / CodeConstants.kMainLoopFrequency;
+    private static final double VISION_PERIOD = 1 / CodeConstants.kVisionFrequency;
+    // the FPGA clock counts whole microseconds
+    private static final double EPSILON = 1e-6;
+
+    @BeforeAll
+    public static void setup() {
+        assertTrue(HAL.initialize(500, 0));
+        // the vision thread's notifier only runs when the clock is stepped
+        SimHooks.pauseTiming();
+    }
+
+    /** An estimate {@code x} meters along the field, captured at {@code timestamp}. */
+    private static EstimatedRobotPose estimate(double x, double timestamp) {
+        return new EstimatedRobotPose(new Pose3d(x, 0, 0, new Rotation3d()), timestamp, List.of(),
+                PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR);
+    }
+
+    /**
+     * Runs {@code loops} main loops, draining the estimates each one would
+     * see, and checks none is stamped later than its frame could have been
+     * captured.
+     */
+    private static List<EstimatedRobotPose> drain(VisionIO vision, int loops) {
+        List<EstimatedRobotPose> drained = new ArrayList<>();
+        for (int i = 0; i < loops; i++) {
+            // also runs the vision thread's notifier up to the new time
+            SimHooks.stepTiming(LOOP_PERIOD);
+            for (EstimatedRobotPose pose : vision.getVisionPoses()) {
+                assertTrue(pose.timestampSeconds <= Timer.getFPGATimestamp() - LATENCY + EPSILON,
+                        "stamped after its frame could have been captured");
+                drained.add(pose);
+            }
+        }
+        return drained;
+    }
+
+    @Test
+    public void drainsEveryEstimateInOrderWithCaptureTimes() {
+        // the canned times are only used for spacing
+        List<EstimatedRobotPose> canned = List.of(estimate(1, 100.0), estimate(2, 100.1), estimate(3, 100.25));
+        double start = Timer.getFPGATimestamp();
+        VisionIO_Canned vision = new VisionIO_Canned(canned, LATENCY, false);
+
+        List<EstimatedRobotPose> drained = drain(vision, 25);
+
+        assertEquals(canned.size(), drained.size(), "estimates drained");
+        for (int i = 0; i < canned.size(); i++) {
+            EstimatedRobotPose expected = canned.get(i);
+            EstimatedRobotPose actual = drained.get(i);
+            assertEquals(expected.estimatedPose, actual.estimatedPose, "estimate " + i + " out of order");
+            // released a latency after its spot in the sequence, on the
+            // vision thread's next tick, and stamped back by the latency
+            double captured = start + expected.timestampSeconds - canned.get(0).timestampSeconds;
+            assertTrue(actual.timestampSeconds >= captured - EPSILON
+                    && actual.timestampSeconds <= captured + VISION_PERIOD + EPSILON,
+                    "estimate " + i + " stamped " + actual.timestampSeconds + ", captured at " + captured);
+        }
+    }
+
+    @Test
+    public void loopsBackToTheFirstEstimate() {
+        List<EstimatedRobotPose> canned = List.of(estimate(4, 0.0), estimate(5, 0.05));
+        VisionIO_Canned vision = new VisionIO_Canned(canned, LATENCY, true);
+
+        List<EstimatedRobotPose> drained = drain(vision, 15);
+
+        assertTrue(drained.size() >= 4, "only " + drained.size() + " estimates drained");
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(canned.get(i % canned.size()).estimatedPose, drained.get(i).estimatedPose,
+                    "estimate " + i + " out of order");
+            if (i > 0) {
+                assertTrue(drained.get(i).timestampSeconds > drained.get(i - 1).timestampSeconds,
+                        "timestamps go backwards at estimate " + i);
+            }
+        }
+    }
+}